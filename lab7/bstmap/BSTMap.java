@@ -1,8 +1,17 @@
 package bstmap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
     private int size;
@@ -13,17 +22,15 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         V value;
         BSTNode left;
         BSTNode right;
+        /** Number of nodes in the subtree rooted at this node, itself included */
+        int subtreeSize;
 
         BSTNode(K key, V value) {
             this.key = key;
             this.value = value;
             left = null;
             right = null;
-        }
-
-        /** Returns true if the BSTNode has a greater key than another BSTNode */
-        boolean greaterThan(BSTNode other) {
-            return key.compareTo(other.key) > 0;
+            subtreeSize = 1;
         }
 
         /** Returns true if the BSTNode has a greater key than a given key */
@@ -34,10 +41,11 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         boolean equals(K key) {
             return this.key.compareTo(key) == 0;
         }
+    }
 
-        boolean lessThan(BSTNode other) {
-            return key.compareTo(other.key) < 0;
-        }
+    /** Returns the size of the subtree rooted at node, 0 for an empty subtree */
+    private int sizeOf(BSTNode node) {
+        return node == null ? 0 : node.subtreeSize;
     }
 
     /** Creates and empty map */
@@ -46,19 +54,127 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         root = null;
     }
 
-    /** Prints out BSTMap in order of increasing Key */
-    public void printInOrder() {
-        printHelper(root);
+    /* ---------------------- Bulk loading ---------------------- */
+
+    /** Subtrees with fewer nodes than this are built sequentially by parallelFromSorted */
+    private static final int PARALLEL_BUILD_THRESHOLD = 1 << 13;
+
+    /**
+     * Returns a perfectly balanced map holding keys[i] -> values[i].
+     * keys must be strictly increasing; the only comparisons made are the
+     * n - 1 needed to check that. Runs in O(n).
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(K[] keys, V[] values) {
+        checkSorted(keys, values);
+        BSTMap<K, V> map = new BSTMap<>();
+        map.root = map.build(keys, values, 0, keys.length - 1);
+        map.size = keys.length;
+        return map;
     }
 
-    private void printHelper(BSTNode node) {
-        if (node == null) {
-            return;
+    /**
+     * Returns a perfectly balanced map holding the entries of an iterator
+     * whose keys are strictly increasing. The entries are buffered first,
+     * since the middle of the input must be known before the root is built.
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(
+            Iterator<? extends Map.Entry<K, V>> entries) {
+        List<K> keys = new ArrayList<>();
+        List<V> values = new ArrayList<>();
+        while (entries.hasNext()) {
+            Map.Entry<K, V> entry = entries.next();
+            keys.add(entry.getKey());
+            values.add(entry.getValue());
+        }
+        // Generic arrays cannot be created directly; these are only ever read as K and V
+        @SuppressWarnings("unchecked")
+        K[] keyArray = (K[]) new Comparable<?>[keys.size()];
+        @SuppressWarnings("unchecked")
+        V[] valueArray = (V[]) new Object[values.size()];
+        return fromSorted(keys.toArray(keyArray), values.toArray(valueArray));
+    }
+
+    /** Same as fromSorted(keys, values), building subtrees in parallel on the common pool */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> parallelFromSorted(K[] keys, V[] values) {
+        return parallelFromSorted(keys, values, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as fromSorted(keys, values), but the left and right subtrees of
+     * every large enough node are built as separate fork-join tasks on pool.
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> parallelFromSorted(
+            K[] keys, V[] values, ForkJoinPool pool) {
+        checkSorted(keys, values);
+        BSTMap<K, V> map = new BSTMap<>();
+        map.root = pool.invoke(map.new BuildTask(keys, values, 0, keys.length - 1));
+        map.size = keys.length;
+        return map;
+    }
+
+    /** Throws IllegalArgumentException unless keys is strictly increasing and matches values */
+    private static <K extends Comparable<K>, V> void checkSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("got " + keys.length + " keys but "
+                    + values.length + " values");
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("keys are not strictly increasing at index " + i);
+            }
+        }
+    }
+
+    /** Builds a balanced subtree out of keys[lo..hi], rooted at the middle key */
+    private BSTNode build(K[] keys, V[] values, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        BSTNode node = new BSTNode(keys[mid], values[mid]);
+        node.left = build(keys, values, lo, mid - 1);
+        node.right = build(keys, values, mid + 1, hi);
+        node.subtreeSize = hi - lo + 1;
+        return node;
+    }
+
+    /** Fork-join version of build */
+    private class BuildTask extends RecursiveTask<BSTNode> {
+        private static final long serialVersionUID = 1L;
+
+        private final K[] keys;
+        private final V[] values;
+        private final int lo;
+        private final int hi;
+
+        BuildTask(K[] keys, V[] values, int lo, int hi) {
+            this.keys = keys;
+            this.values = values;
+            this.lo = lo;
+            this.hi = hi;
         }
 
-        printHelper(node.left);
-        System.out.println(node.key);
-        printHelper(node.right);
+        @Override
+        protected BSTNode compute() {
+            if (hi - lo + 1 < PARALLEL_BUILD_THRESHOLD) {
+                return build(keys, values, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            BuildTask left = new BuildTask(keys, values, lo, mid - 1);
+            left.fork();
+            BSTNode node = new BSTNode(keys[mid], values[mid]);
+            node.right = new BuildTask(keys, values, mid + 1, hi).compute();
+            node.left = left.join();
+            node.subtreeSize = hi - lo + 1;
+            return node;
+        }
+    }
+
+    /** Prints out BSTMap in order of increasing Key */
+    public void printInOrder() {
+        for (K key : this) {
+            System.out.println(key);
+        }
     }
 
     /** Removes all the mappings from this map. */
@@ -71,21 +187,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
     /** Returns true if this map contains a mapping for the specified key. */
     @Override
     public boolean containsKey(K key) {
-        return containsHelper(root, key);
-    }
-
-    private boolean containsHelper(BSTNode node, K key) {
-        if (node == null) {
-            return false;
-        }
-
-        if (node.equals(key)) {
-            return true;
-        } else if (node.greaterThan(key)) {
-            return containsHelper(node.left, key);
-        } else {
-            return containsHelper(node.right, key);
-        }
+        return find(key) != null;
     }
 
     /** Returns the value to which the specified key is mapped, or null if this
@@ -93,82 +195,295 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
      */
     @Override
     public V get(K key) {
-        return getHelper(root, key);
+        BSTNode node = find(key);
+        return node == null ? null : node.value;
     }
 
-    private V getHelper(BSTNode node, K key) {
-        if (node == null) {
-            return null;
-        }
-
-        if (node.equals(key)) {
-            return node.value;
-        } else if (node.greaterThan(key)) {
-            return getHelper(node.left, key);
-        } else {
-            return getHelper(node.right, key);
+    /** Returns the node with the given key, or null. One compareTo per level. */
+    private BSTNode find(K key) {
+        BSTNode node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
         }
+        return null;
     }
 
-
     /** Returns the number of key-value mappings in this map. */
     @Override
     public int size() {
         return size;
     }
 
-    /** Associates the specified value with the specified key in this map. */
+    /** Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced in place. */
     @Override
     public void put(K key, V value) {
-        if (containsKey(key)) {
+        if (root == null) {
+            root = new BSTNode(key, value);
+            size = 1;
             return;
         }
 
+        BSTNode parent = root;
+        int cmp;
+        while (true) {
+            cmp = key.compareTo(parent.key);
+            if (cmp == 0) {
+                parent.value = value;
+                return;
+            }
+            BSTNode next = cmp < 0 ? parent.left : parent.right;
+            if (next == null) {
+                break;
+            }
+            parent = next;
+        }
+
         BSTNode node = new BSTNode(key, value);
-        root = insert(root, node);
+        if (cmp < 0) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
         size += 1;
+        growPathTo(node);
     }
 
-    private BSTNode insert(BSTNode node, BSTNode next) {
-        if (node == null) {
-            return next;
-        }
-
-        if (node.greaterThan(next)) {
-            node.left = insert(node.left, next);
-        } else if (node.lessThan(next)) {
-            node.right = insert(node.right, next);
+    /** Adds one to the subtree size of every ancestor of a newly linked node */
+    private void growPathTo(BSTNode node) {
+        BSTNode ancestor = root;
+        while (ancestor != node) {
+            ancestor.subtreeSize += 1;
+            ancestor = node.key.compareTo(ancestor.key) < 0 ? ancestor.left : ancestor.right;
         }
-
-        return node;
-
     }
 
-    /** Returns a Set view of the keys contained in this map. Not required for Lab 7.
-     * If you don't implement this, throw an UnsupportedOperationException. */
+    /** Returns a Set of the keys contained in this map, in increasing order. */
     @Override
     public Set<K> keySet() {
-        throw new UnsupportedOperationException();
+        Set<K> keys = new TreeSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
     }
 
-    /** Removes the mapping for the specified key from this map if present.
-     * Not required for Lab 7. If you don't implement this, throw an
-     * UnsupportedOperationException. */
+    /** Removes the mapping for the specified key from this map if present. */
     @Override
     public V remove(K key) {
-        throw new UnsupportedOperationException();
+        BSTNode node = find(key);
+        if (node == null) {
+            return null;
+        }
+        delete(key);
+        return node.value;
     }
 
     /** Removes the entry for the specified key only if it is currently mapped to
-     * the specified value. Not required for Lab 7. If you don't implement this,
-     * throw an UnsupportedOperationException.*/
+     * the specified value. */
     @Override
     public V remove(K key, V value) {
-        throw new UnsupportedOperationException();
+        BSTNode node = find(key);
+        if (node == null || !Objects.equals(node.value, value)) {
+            return null;
+        }
+        delete(key);
+        return node.value;
+    }
+
+    /**
+     * Unlinks the node holding key, which must be in the map.
+     * Hibbard deletion: a node with two children is replaced by its successor.
+     * Every node on the way down loses one from its subtree size.
+     */
+    private void delete(K key) {
+        BSTNode parent = null;
+        BSTNode node = root;
+        int cmp = key.compareTo(node.key);
+        while (cmp != 0) {
+            node.subtreeSize -= 1;
+            parent = node;
+            node = cmp < 0 ? node.left : node.right;
+            cmp = key.compareTo(node.key);
+        }
+
+        BSTNode replacement;
+        if (node.left == null) {
+            replacement = node.right;
+        } else if (node.right == null) {
+            replacement = node.left;
+        } else {
+            BSTNode successorParent = node;
+            BSTNode successor = node.right;
+            while (successor.left != null) {
+                successor.subtreeSize -= 1;
+                successorParent = successor;
+                successor = successor.left;
+            }
+            if (successorParent != node) {
+                successorParent.left = successor.right;
+                successor.right = node.right;
+            }
+            successor.left = node.left;
+            successor.subtreeSize = node.subtreeSize - 1;
+            replacement = successor;
+        }
+
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == node) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        size -= 1;
+    }
+
+    /* ---------------------- Ordered operations ---------------------- */
+
+    /** Returns the largest key less than or equal to key, or null if there is none */
+    public K floor(K key) {
+        BSTNode node = root;
+        K best = null;
+        while (node != null) {
+            if (node.equals(key)) {
+                return node.key;
+            } else if (node.greaterThan(key)) {
+                node = node.left;
+            } else {
+                best = node.key;
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the smallest key greater than or equal to key, or null if there is none */
+    public K ceiling(K key) {
+        BSTNode node = root;
+        K best = null;
+        while (node != null) {
+            if (node.equals(key)) {
+                return node.key;
+            } else if (node.greaterThan(key)) {
+                best = node.key;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the number of keys in this map strictly less than key */
+    public int rank(K key) {
+        BSTNode node = root;
+        int rank = 0;
+        while (node != null) {
+            if (node.equals(key)) {
+                return rank + sizeOf(node.left);
+            } else if (node.greaterThan(key)) {
+                node = node.left;
+            } else {
+                rank += 1 + sizeOf(node.left);
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the key of the given rank, i.e. the k-th smallest key counting from 0,
+     * so that select(rank(key)) == key for every key in the map.
+     */
+    public K select(int k) {
+        if (k < 0 || k >= size) {
+            throw new IllegalArgumentException("rank " + k + " is out of range for size " + size);
+        }
+        BSTNode node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (k < leftSize) {
+                node = node.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
     }
 
+    /** Returns the number of keys between lo and hi, both inclusive */
+    public int size(K lo, K hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        return rank(hi) - rank(lo) + (containsKey(hi) ? 1 : 0);
+    }
+
+    /**
+     * Returns the keys between lo and hi, both inclusive, in increasing order.
+     * Keys are produced lazily: only the subtrees that overlap the range are visited.
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> new BSTMapIterator(lo, hi);
+    }
+
+    /** Returns an iterator over the keys in increasing order */
     @Override
     public Iterator<K> iterator() {
-        throw new UnsupportedOperationException();
+        return new BSTMapIterator(null, null);
+    }
+
+    /**
+     * In-order traversal with an explicit stack instead of recursion.
+     * A null bound means that side of the range is unbounded.
+     */
+    private class BSTMapIterator implements Iterator<K> {
+        private final ArrayDeque<BSTNode> stack = new ArrayDeque<>();
+        private final K lo;
+        private final K hi;
+
+        BSTMapIterator(K lo, K hi) {
+            this.lo = lo;
+            this.hi = hi;
+            pushLeft(root);
+        }
+
+        /** Pushes the path to the smallest key >= lo in the subtree rooted at node */
+        private void pushLeft(BSTNode node) {
+            while (node != null) {
+                if (lo != null && node.key.compareTo(lo) < 0) {
+                    node = node.right;
+                } else {
+                    stack.push(node);
+                    node = node.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (hi == null || stack.peek().key.compareTo(hi) <= 0);
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BSTNode node = stack.pop();
+            pushLeft(node.right);
+            return node.key;
+        }
     }
 }
@@ -0,0 +1,290 @@
+package bstmap;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A persistent (immutable, structurally shared) AVL tree implementation of Map61B.
+ *
+ * Nodes are never modified once built. with() and without() return a new
+ * version of the map that copies only the O(log N) nodes on the path to
+ * the key and shares every other node with the old version, which stays
+ * valid and unchanged.
+ *
+ * The Map61B mutators (put, remove, clear) move this map to the new version,
+ * and snapshot() hands out the current version in O(1). A snapshot never
+ * changes, so readers can iterate it without a lock while a writer keeps
+ * updating the map. The map itself is meant to have a single writer.
+ */
+public class PersistentBSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+
+    /** The current version. Volatile so snapshot() in another thread sees a complete tree. */
+    private volatile BSTNode<K, V> root;
+
+    private static class BSTNode<K, V> {
+        final K key;
+        final V value;
+        final BSTNode<K, V> left;
+        final BSTNode<K, V> right;
+        final int height;
+        /** Number of nodes in the subtree rooted at this node, itself included */
+        final int subtreeSize;
+
+        BSTNode(K key, V value, BSTNode<K, V> left, BSTNode<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            height = 1 + Math.max(heightOf(left), heightOf(right));
+            subtreeSize = 1 + sizeOf(left) + sizeOf(right);
+        }
+    }
+
+    /** Creates an empty map */
+    public PersistentBSTMap() {
+        root = null;
+    }
+
+    private PersistentBSTMap(BSTNode<K, V> root) {
+        this.root = root;
+    }
+
+    private static int heightOf(BSTNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int sizeOf(BSTNode<?, ?> node) {
+        return node == null ? 0 : node.subtreeSize;
+    }
+
+    /* ---------------------- Versions ---------------------- */
+
+    /** Returns the current version of this map. Later updates to this map do not affect it. */
+    public PersistentBSTMap<K, V> snapshot() {
+        return new PersistentBSTMap<>(root);
+    }
+
+    /** Returns a new version of this map with key mapped to value. This map is unchanged. */
+    public PersistentBSTMap<K, V> with(K key, V value) {
+        return new PersistentBSTMap<>(insert(root, key, value));
+    }
+
+    /** Returns a new version of this map without key. This map is unchanged. */
+    public PersistentBSTMap<K, V> without(K key) {
+        BSTNode<K, V> current = root;
+        if (find(current, key) == null) {
+            return new PersistentBSTMap<>(current);
+        }
+        return new PersistentBSTMap<>(delete(current, key));
+    }
+
+    /* ---------------------- Map61B ---------------------- */
+
+    /** Removes all the mappings from this map. Existing snapshots keep theirs. */
+    @Override
+    public void clear() {
+        root = null;
+    }
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    @Override
+    public boolean containsKey(K key) {
+        return find(root, key) != null;
+    }
+
+    /** Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     */
+    @Override
+    public V get(K key) {
+        BSTNode<K, V> node = find(root, key);
+        return node == null ? null : node.value;
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /** Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced. Existing snapshots are not affected. */
+    @Override
+    public void put(K key, V value) {
+        root = insert(root, key, value);
+    }
+
+    /** Returns a Set of the keys contained in this map, in increasing order. */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new TreeSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /** Removes the mapping for the specified key from this map if present. */
+    @Override
+    public V remove(K key) {
+        BSTNode<K, V> current = root;
+        BSTNode<K, V> node = find(current, key);
+        if (node == null) {
+            return null;
+        }
+        root = delete(current, key);
+        return node.value;
+    }
+
+    /** Removes the entry for the specified key only if it is currently mapped to
+     * the specified value. */
+    @Override
+    public V remove(K key, V value) {
+        BSTNode<K, V> current = root;
+        BSTNode<K, V> node = find(current, key);
+        if (node == null || !Objects.equals(node.value, value)) {
+            return null;
+        }
+        root = delete(current, key);
+        return node.value;
+    }
+
+    /**
+     * Returns an iterator over the keys in increasing order. It walks the
+     * version that was current when it was created.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new PersistentIterator<>(root);
+    }
+
+    /* ---------------------- Tree helpers ---------------------- */
+
+    private BSTNode<K, V> find(BSTNode<K, V> node, K key) {
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /** Returns a copy of the subtree with key mapped to value, sharing every untouched node */
+    private BSTNode<K, V> insert(BSTNode<K, V> node, K key, V value) {
+        if (node == null) {
+            return new BSTNode<>(key, value, null, null);
+        }
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            return balance(node.key, node.value, insert(node.left, key, value), node.right);
+        } else if (cmp > 0) {
+            return balance(node.key, node.value, node.left, insert(node.right, key, value));
+        } else {
+            return new BSTNode<>(key, value, node.left, node.right);
+        }
+    }
+
+    /** Returns a copy of the subtree without key, which must be in it */
+    private BSTNode<K, V> delete(BSTNode<K, V> node, K key) {
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            return balance(node.key, node.value, delete(node.left, key), node.right);
+        } else if (cmp > 0) {
+            return balance(node.key, node.value, node.left, delete(node.right, key));
+        }
+
+        if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+        BSTNode<K, V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, deleteMin(node.right));
+    }
+
+    private BSTNode<K, V> deleteMin(BSTNode<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, node.value, deleteMin(node.left), node.right);
+    }
+
+    /**
+     * Returns a new node for key/value over the given children, rotated if
+     * the children's heights differ by more than one.
+     */
+    private BSTNode<K, V> balance(K key, V value, BSTNode<K, V> left, BSTNode<K, V> right) {
+        int diff = heightOf(left) - heightOf(right);
+        if (diff > 1) {
+            if (heightOf(left.left) < heightOf(left.right)) {
+                // left-right case: the middle key moves to the top
+                BSTNode<K, V> mid = left.right;
+                return new BSTNode<>(mid.key, mid.value,
+                        new BSTNode<>(left.key, left.value, left.left, mid.left),
+                        new BSTNode<>(key, value, mid.right, right));
+            }
+            return new BSTNode<>(left.key, left.value, left.left,
+                    new BSTNode<>(key, value, left.right, right));
+        } else if (diff < -1) {
+            if (heightOf(right.right) < heightOf(right.left)) {
+                // right-left case: the middle key moves to the top
+                BSTNode<K, V> mid = right.left;
+                return new BSTNode<>(mid.key, mid.value,
+                        new BSTNode<>(key, value, left, mid.left),
+                        new BSTNode<>(right.key, right.value, mid.right, right.right));
+            }
+            return new BSTNode<>(right.key, right.value,
+                    new BSTNode<>(key, value, left, right.left), right.right);
+        }
+        return new BSTNode<>(key, value, left, right);
+    }
+
+    /** Returns the height of the current version, where an empty tree has height 0 */
+    int height() {
+        return heightOf(root);
+    }
+
+    /** In-order traversal of a fixed version with an explicit stack */
+    private static class PersistentIterator<K> implements Iterator<K> {
+        private final ArrayDeque<BSTNode<K, ?>> stack = new ArrayDeque<>();
+
+        PersistentIterator(BSTNode<K, ?> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(BSTNode<K, ?> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BSTNode<K, ?> node = stack.pop();
+            pushLeft(node.right);
+            return node.key;
+        }
+    }
+}
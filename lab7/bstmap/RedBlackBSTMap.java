@@ -0,0 +1,322 @@
+package bstmap;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A left-leaning red-black BST (Sedgewick's LLRB) implementation of Map61B.
+ * Unlike BSTMap, the tree stays balanced no matter the insertion order,
+ * so inserting keys in sorted order still takes O(log N) per put and the
+ * recursion depth never exceeds about 2 lg N.
+ */
+public class RedBlackBSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private int size;
+    private RBNode root;
+
+    private class RBNode {
+        K key;
+        V value;
+        RBNode left;
+        RBNode right;
+        /** Color of the link from the parent to this node */
+        boolean color;
+
+        RBNode(K key, V value) {
+            this.key = key;
+            this.value = value;
+            color = RED;
+        }
+    }
+
+    /** Creates an empty map */
+    public RedBlackBSTMap() {
+        size = 0;
+        root = null;
+    }
+
+    /* ---------------------- Balancing helpers ---------------------- */
+
+    private boolean isRed(RBNode node) {
+        return node != null && node.color == RED;
+    }
+
+    private RBNode rotateLeft(RBNode h) {
+        RBNode x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        return x;
+    }
+
+    private RBNode rotateRight(RBNode h) {
+        RBNode x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        return x;
+    }
+
+    private void flipColors(RBNode h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    /** Restores the left-leaning invariants on the way back up */
+    private RBNode balance(RBNode h) {
+        if (isRed(h.right) && !isRed(h.left)) {
+            h = rotateLeft(h);
+        }
+        if (isRed(h.left) && isRed(h.left.left)) {
+            h = rotateRight(h);
+        }
+        if (isRed(h.left) && isRed(h.right)) {
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /** Makes h.left or one of its children red, assuming h is red and both children are black */
+    private RBNode moveRedLeft(RBNode h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /** Makes h.right or one of its children red, assuming h is red and both children are black */
+    private RBNode moveRedRight(RBNode h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /* ---------------------- Map61B ---------------------- */
+
+    /** Removes all the mappings from this map. */
+    @Override
+    public void clear() {
+        size = 0;
+        root = null;
+    }
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    @Override
+    public boolean containsKey(K key) {
+        return find(key) != null;
+    }
+
+    /** Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     */
+    @Override
+    public V get(K key) {
+        RBNode node = find(key);
+        return node == null ? null : node.value;
+    }
+
+    /** Returns the node with the given key, or null */
+    private RBNode find(K key) {
+        RBNode node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced. */
+    @Override
+    public void put(K key, V value) {
+        root = insert(root, key, value);
+        root.color = BLACK;
+    }
+
+    private RBNode insert(RBNode node, K key, V value) {
+        if (node == null) {
+            size += 1;
+            return new RBNode(key, value);
+        }
+
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            node.left = insert(node.left, key, value);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, key, value);
+        } else {
+            node.value = value;
+        }
+        return balance(node);
+    }
+
+    /** Returns a Set of the keys contained in this map, in increasing order. */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new TreeSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /** Removes the mapping for the specified key from this map if present. */
+    @Override
+    public V remove(K key) {
+        RBNode node = find(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.value;
+        delete(key);
+        return value;
+    }
+
+    /** Removes the entry for the specified key only if it is currently mapped to
+     * the specified value. */
+    @Override
+    public V remove(K key, V value) {
+        RBNode node = find(key);
+        if (node == null || !Objects.equals(node.value, value)) {
+            return null;
+        }
+        V removed = node.value;
+        delete(key);
+        return removed;
+    }
+
+    /** Deletes key, which must be in the tree */
+    private void delete(K key) {
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.color = RED;
+        }
+        root = delete(root, key);
+        if (root != null) {
+            root.color = BLACK;
+        }
+        size -= 1;
+    }
+
+    private RBNode delete(RBNode h, K key) {
+        if (key.compareTo(h.key) < 0) {
+            if (!isRed(h.left) && !isRed(h.left.left)) {
+                h = moveRedLeft(h);
+            }
+            h.left = delete(h.left, key);
+        } else {
+            if (isRed(h.left)) {
+                h = rotateRight(h);
+            }
+            if (key.compareTo(h.key) == 0 && h.right == null) {
+                return null;
+            }
+            if (!isRed(h.right) && !isRed(h.right.left)) {
+                h = moveRedRight(h);
+            }
+            if (key.compareTo(h.key) == 0) {
+                RBNode successor = min(h.right);
+                h.key = successor.key;
+                h.value = successor.value;
+                h.right = deleteMin(h.right);
+            } else {
+                h.right = delete(h.right, key);
+            }
+        }
+        return balance(h);
+    }
+
+    private RBNode deleteMin(RBNode h) {
+        if (h.left == null) {
+            return null;
+        }
+        if (!isRed(h.left) && !isRed(h.left.left)) {
+            h = moveRedLeft(h);
+        }
+        h.left = deleteMin(h.left);
+        return balance(h);
+    }
+
+    private RBNode min(RBNode node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    /** Returns an iterator over the keys in increasing order */
+    @Override
+    public Iterator<K> iterator() {
+        return new InOrderIterator();
+    }
+
+    /** In-order traversal with an explicit stack of at most ~2 lg N nodes */
+    private class InOrderIterator implements Iterator<K> {
+        private final ArrayDeque<RBNode> stack = new ArrayDeque<>();
+
+        InOrderIterator() {
+            pushLeft(root);
+        }
+
+        private void pushLeft(RBNode node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RBNode node = stack.pop();
+            pushLeft(node.right);
+            return node.key;
+        }
+    }
+
+    /** Returns the height of the tree, where an empty tree has height 0 */
+    int height() {
+        return height(root);
+    }
+
+    private int height(RBNode node) {
+        if (node == null) {
+            return 0;
+        }
+        return 1 + Math.max(height(node.left), height(node.right));
+    }
+}
@@ -87,4 +87,34 @@ public class TestBSTMap {
         assertTrue(b.containsKey("hi"));
     }
 
+    // put on an existing key replaces its value without changing the size
+    @Test
+    public void putReplacesValueTest() {
+        BSTMap<String, Integer> b = new BSTMap<String, Integer>();
+        b.put("hi", 1);
+        b.put("hi", 2);
+        assertEquals(1, b.size());
+        assertEquals(2, b.get("hi").intValue());
+    }
+
+    // sorted input builds a tree as deep as it is large; nothing may recurse on it
+    @Test
+    public void deepTreeTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<Integer, Integer>();
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        assertEquals(n, b.size());
+        assertTrue(b.containsKey(n - 1));
+        assertEquals(n - 1, b.get(n - 1).intValue());
+        int expected = 0;
+        for (int key : b) {
+            assertEquals(expected, key);
+            expected += 1;
+        }
+        assertEquals(n - 1, b.remove(n - 1).intValue());
+        assertEquals(n - 2, b.select(n - 2).intValue());
+    }
+
 }
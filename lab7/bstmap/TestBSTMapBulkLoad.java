@@ -0,0 +1,70 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Tests of building a BSTMap from sorted input. */
+public class TestBSTMapBulkLoad {
+
+    private static Integer[] range(int n) {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i;
+        }
+        return keys;
+    }
+
+    private static void checkContents(BSTMap<Integer, Integer> b, int n) {
+        assertEquals(n, b.size());
+        int expected = 0;
+        for (int key : b) {
+            assertEquals(expected, key);
+            assertEquals(expected, b.get(key).intValue());
+            assertEquals(expected, b.rank(key));
+            expected += 1;
+        }
+        assertEquals(n, expected);
+    }
+
+    @Test
+    public void fromSortedArrayTest() {
+        for (int n : new int[] {0, 1, 2, 3, 100, 1023}) {
+            checkContents(BSTMap.fromSorted(range(n), range(n)), n);
+        }
+    }
+
+    @Test
+    public void fromSortedIteratorTest() {
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            entries.add(new AbstractMap.SimpleEntry<>(i, i));
+        }
+        BSTMap<Integer, Integer> b = BSTMap.fromSorted(entries.iterator());
+        checkContents(b, 500);
+        b.put(500, 500);
+        assertEquals(0, b.remove(0).intValue());
+        assertEquals(500, b.select(499).intValue());
+    }
+
+    /** A large sorted input used to overflow the stack when put one key at a time. */
+    @Test
+    public void parallelFromSortedTest() {
+        int n = 200000;
+        checkContents(BSTMap.parallelFromSorted(range(n), range(n)), n);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsortedTest() {
+        BSTMap.fromSorted(new Integer[] {1, 3, 2}, new Integer[] {1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDuplicatesTest() {
+        BSTMap.fromSorted(new Integer[] {1, 1}, new Integer[] {1, 2});
+    }
+}
@@ -0,0 +1,97 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of the ordered operations (floor/ceiling, rank/select, ranges) of BSTMap. */
+public class TestBSTMapOrdered {
+
+    /** Returns a map holding the even numbers 0, 2, ..., 2 * (n - 1) in random order */
+    private static BSTMap<Integer, Integer> evens(int n) {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            keys.add(2 * i);
+        }
+        Collections.shuffle(keys, new Random(61));
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        for (int key : keys) {
+            b.put(key, key);
+        }
+        return b;
+    }
+
+    @Test
+    public void floorCeilingTest() {
+        BSTMap<Integer, Integer> b = evens(50);
+        assertEquals(10, b.floor(10).intValue());
+        assertEquals(10, b.floor(11).intValue());
+        assertEquals(12, b.ceiling(11).intValue());
+        assertEquals(98, b.floor(1000).intValue());
+        assertNull(b.floor(-1));
+        assertNull(b.ceiling(99));
+        assertNull(new BSTMap<Integer, Integer>().floor(3));
+    }
+
+    @Test
+    public void rankSelectTest() {
+        BSTMap<Integer, Integer> b = evens(50);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(2 * i, b.select(i).intValue());
+            assertEquals(i, b.rank(2 * i));
+            assertEquals(i + 1, b.rank(2 * i + 1));
+        }
+        assertEquals(0, b.rank(-5));
+        assertEquals(50, b.rank(500));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void selectOutOfRangeTest() {
+        evens(5).select(5);
+    }
+
+    @Test
+    public void rangeTest() {
+        BSTMap<Integer, Integer> b = evens(50);
+        List<Integer> keys = new ArrayList<>();
+        for (int key : b.keys(9, 20)) {
+            keys.add(key);
+        }
+        assertEquals(List.of(10, 12, 14, 16, 18, 20), keys);
+        assertEquals(6, b.size(9, 20));
+        assertEquals(0, b.size(20, 9));
+        assertFalse(b.keys(99, 200).iterator().hasNext());
+    }
+
+    /** Subtree sizes must stay correct through removes. */
+    @Test
+    public void randomizedAgainstTreeMapTest() {
+        Random random = new Random(61);
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(300);
+            if (random.nextInt(3) > 0) {
+                b.put(key, key);
+                expected.put(key, key);
+            } else {
+                b.remove(key);
+                expected.remove(key);
+            }
+        }
+        List<Integer> sorted = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), b.select(i));
+        }
+        for (int key = -1; key <= 300; key++) {
+            assertEquals(expected.floorKey(key), b.floor(key));
+            assertEquals(expected.ceilingKey(key), b.ceiling(key));
+            assertEquals(expected.headMap(key).size(), b.rank(key));
+        }
+    }
+}
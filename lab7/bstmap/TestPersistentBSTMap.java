@@ -0,0 +1,107 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of the persistent (snapshotting) BST map. */
+public class TestPersistentBSTMap {
+
+    @Test
+    public void sanityMapTest() {
+        PersistentBSTMap<String, Integer> b = new PersistentBSTMap<>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+            assertTrue(b.containsKey("hi" + i) && b.get("hi" + i).equals(i));
+        }
+        assertEquals(455, b.size());
+        assertEquals(455, b.keySet().size());
+        b.put("hi0", 42);
+        assertEquals(455, b.size());
+        assertEquals(42, b.get("hi0").intValue());
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.containsKey("hi1"));
+    }
+
+    @Test
+    public void versionsAreIndependentTest() {
+        PersistentBSTMap<String, Integer> v0 = new PersistentBSTMap<>();
+        PersistentBSTMap<String, Integer> v1 = v0.with("a", 1);
+        PersistentBSTMap<String, Integer> v2 = v1.with("b", 2).with("a", 10);
+        PersistentBSTMap<String, Integer> v3 = v2.without("b");
+
+        assertEquals(0, v0.size());
+        assertEquals(1, v1.get("a").intValue());
+        assertFalse(v1.containsKey("b"));
+        assertEquals(10, v2.get("a").intValue());
+        assertEquals(2, v2.get("b").intValue());
+        assertEquals(1, v3.size());
+        assertEquals(1, v3.without("missing").size());
+    }
+
+    /** A snapshot keeps its contents while the map it came from changes. */
+    @Test
+    public void snapshotIsStableTest() {
+        PersistentBSTMap<Integer, Integer> b = new PersistentBSTMap<>();
+        for (int i = 0; i < 100; i++) {
+            b.put(i, i);
+        }
+        PersistentBSTMap<Integer, Integer> snapshot = b.snapshot();
+        List<Integer> seen = new ArrayList<>();
+        for (int key : snapshot) {
+            // the writer keeps going while we iterate
+            b.remove(key);
+            b.put(key + 1000, key);
+            seen.add(key);
+        }
+        assertEquals(100, seen.size());
+        assertEquals(100, snapshot.size());
+        assertEquals(50, snapshot.get(50).intValue());
+        assertFalse(b.containsKey(50));
+        assertEquals(100, b.size());
+    }
+
+    @Test
+    public void sortedInsertStaysBalancedTest() {
+        PersistentBSTMap<Integer, Integer> b = new PersistentBSTMap<>();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        // An AVL tree is never taller than about 1.44 lg N
+        assertTrue(b.height() <= 1.45 * Math.log(n + 2) / Math.log(2));
+    }
+
+    @Test
+    public void randomizedAgainstTreeMapTest() {
+        Random random = new Random(61);
+        PersistentBSTMap<Integer, Integer> b = new PersistentBSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            int op = random.nextInt(4);
+            if (op == 0) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else if (op == 1) {
+                Integer value = expected.get(key);
+                Integer removed = b.remove(key, i % 7);
+                if (value != null && value == i % 7) {
+                    expected.remove(key);
+                    assertEquals(value, removed);
+                } else {
+                    assertNull(removed);
+                }
+            } else {
+                b.put(key, i % 7);
+                expected.put(key, i % 7);
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(b.keySet()));
+    }
+}
@@ -0,0 +1,109 @@
+package bstmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/** Tests of the left-leaning red-black BST map. */
+public class TestRedBlackBSTMap {
+
+    @Test
+    public void sanityClearTest() {
+        RedBlackBSTMap<String, Integer> b = new RedBlackBSTMap<>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, 1 + i);
+            assertTrue(b.containsKey("hi" + i) && b.get("hi" + i).equals(1 + i));
+        }
+        assertEquals(455, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        for (int i = 0; i < 455; i++) {
+            assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        RedBlackBSTMap<String, Integer> b = new RedBlackBSTMap<>();
+        b.put("hi", 1);
+        b.put("hi", 2);
+        assertEquals(1, b.size());
+        assertEquals(2, b.get("hi").intValue());
+        b.put("hi", null);
+        assertTrue(b.containsKey("hi"));
+        assertNull(b.get("hi"));
+    }
+
+    /** Sorted input must not degenerate into a linked list. */
+    @Test
+    public void sortedInsertStaysBalancedTest() {
+        RedBlackBSTMap<Integer, Integer> b = new RedBlackBSTMap<>();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        assertEquals(n, b.size());
+        // A red-black tree is never taller than 2 lg(N + 1)
+        assertTrue(b.height() <= 2 * (int) Math.ceil(Math.log(n + 1) / Math.log(2)));
+
+        int expected = 0;
+        for (int key : b) {
+            assertEquals(expected, key);
+            expected += 1;
+        }
+        assertEquals(n, expected);
+    }
+
+    @Test
+    public void keySetIsSortedTest() {
+        RedBlackBSTMap<String, Integer> b = new RedBlackBSTMap<>();
+        b.put("c", 1);
+        b.put("a", 2);
+        b.put("b", 3);
+        assertEquals(List.of("a", "b", "c"), new ArrayList<>(b.keySet()));
+    }
+
+    @Test
+    public void removeTest() {
+        RedBlackBSTMap<String, String> q = new RedBlackBSTMap<>();
+        q.put("c", "a");
+        q.put("b", "a");
+        q.put("a", "a");
+        q.put("d", "a");
+        q.put("e", "a");
+        assertEquals("a", q.remove("c"));
+        assertFalse(q.containsKey("c"));
+        assertNull(q.remove("c"));
+        assertNull(q.remove("a", "b"));
+        assertEquals("a", q.remove("a", "a"));
+        assertEquals(3, q.size());
+        assertTrue(q.containsKey("b") && q.containsKey("d") && q.containsKey("e"));
+    }
+
+    @Test
+    public void randomizedAgainstTreeMapTest() {
+        Random random = new Random(61);
+        RedBlackBSTMap<Integer, Integer> b = new RedBlackBSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) > 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), b.remove(key));
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int key : b) {
+            keys.add(key);
+            assertEquals(expected.get(key), b.get(key));
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+}
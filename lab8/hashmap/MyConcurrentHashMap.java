@@ -0,0 +1,327 @@
+package hashmap;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ *  A thread-safe hash table-backed Map implementation.
+ *
+ *  The table is split into a fixed number of segments, each a small hash
+ *  table of its own guarded by its own StampedLock. A key always maps
+ *  to the same segment, so operations on different segments never contend.
+ *  get and containsKey do not lock at all: they read the segment
+ *  optimistically, which writes nothing to shared memory, and only take the
+ *  read lock if a writer changed the segment while they were reading. Each
+ *  segment resizes on its own, so a resize only blocks the keys of one segment.
+ *
+ *  Buckets are still built by createBucket(), so the bucket experiments
+ *  work here too: override it exactly as in the MyHashMap*Buckets classes.
+ *
+ *  Assumes null keys will never be inserted, and does not resize down upon remove().
+ */
+public class MyConcurrentHashMap<K, V> implements Map61B<K, V> {
+
+    /**
+     * Protected helper class to store key/value pairs
+     * The protected qualifier allows subclass access
+     */
+    protected class Node {
+        K key;
+        V value;
+
+        Node(K k, V v) {
+            key = k;
+            value = v;
+        }
+    }
+
+    /** One independently locked and resized part of the table */
+    private class Segment {
+        private final StampedLock lock = new StampedLock();
+        private Collection<Node>[] buckets;
+        private int count;
+
+        Segment(int tableSize) {
+            buckets = newTable(tableSize);
+        }
+
+        /** Returns the node for key in this segment, or null. Caller holds a lock,
+         * or is reading optimistically and will validate before trusting the node. */
+        private Node find(K key, int hash) {
+            for (Node item : buckets[hash & (buckets.length - 1)]) {
+                if (item.key.equals(key)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns reader applied to the node for key (null if absent). Tries an
+         * optimistic read first; if a writer got in, which may have made the
+         * bucket throw halfway through, reads again under the read lock.
+         */
+        private <R> R read(K key, int hash, Function<Node, R> reader) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                try {
+                    R result = reader.apply(find(key, hash));
+                    if (lock.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException excp) {
+                    // The bucket was changed under us, fall through to the locked read
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return reader.apply(find(key, hash));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /** Rehashes this segment into a table twice as large. Caller holds the write lock. */
+        private void resize() {
+            Collection<Node>[] temp = newTable(2 * buckets.length);
+            for (Collection<Node> bucket : buckets) {
+                for (Node node : bucket) {
+                    temp[spread(node.key.hashCode()) & (temp.length - 1)].add(node);
+                }
+            }
+            buckets = temp;
+        }
+    }
+
+    /* Instance Variables */
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int segmentTableSize;
+    private final LongAdder size;
+    private final double maxLF;
+
+    /** Constructors */
+    public MyConcurrentHashMap() {
+        this(16, 0.75, 16);
+    }
+
+    public MyConcurrentHashMap(int initialSize) {
+        this(initialSize, 0.75, 16);
+    }
+
+    public MyConcurrentHashMap(int initialSize, double maxLoad) {
+        this(initialSize, maxLoad, 16);
+    }
+
+    /**
+     * MyConcurrentHashMap constructor that creates backing arrays with
+     * a total of about initialSize buckets spread over concurrencyLevel
+     * independently locked segments.
+     * The load factor (# items / # buckets) of each segment should always be <= loadFactor
+     *
+     * @param initialSize initial total size of the backing arrays
+     * @param maxLoad maximum load factor
+     * @param concurrencyLevel number of segments, rounded up to a power of two
+     */
+    public MyConcurrentHashMap(int initialSize, double maxLoad, int concurrencyLevel) {
+        int segmentCount = powerOfTwoAtLeast(concurrencyLevel);
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        segmentTableSize = powerOfTwoAtLeast(Math.max(1, initialSize / segmentCount));
+        maxLF = maxLoad;
+        size = new LongAdder();
+
+        segments = (Segment[]) new MyConcurrentHashMap.Segment[segmentCount];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(segmentTableSize);
+        }
+    }
+
+    /** Helper Methods */
+
+    /** Returns the smallest power of two that is >= n */
+    private static int powerOfTwoAtLeast(int n) {
+        int result = 1;
+        while (result < n) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Mixes the hash code so both the high bits (used to pick a segment)
+     * and the low bits (used to pick a bucket) depend on the whole code.
+     */
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Returns the segment responsible for the given spread hash */
+    private Segment segmentFor(int hash) {
+        // A shift of 32 is a no-op in Java, so a single segment is special-cased
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /** Returns a new table with every slot filled by createBucket() */
+    private Collection<Node>[] newTable(int tableSize) {
+        Collection<Node>[] table = createTable(tableSize);
+        for (int i = 0; i < table.length; i++) {
+            table[i] = createBucket();
+        }
+        return table;
+    }
+
+    /**
+     * Returns a data structure to be a hash table bucket.
+     * Same contract as MyHashMap.createBucket(): override this method to
+     * use different data structures as the underlying bucket type.
+     * Buckets are only changed while their segment's write lock is held, and
+     * optimistic readers retry under the lock if that happens mid-read, so
+     * they do not need to be thread-safe themselves.
+     */
+    protected Collection<Node> createBucket() {
+        return new LinkedList<>();
+    }
+
+    /**
+     * Returns a table to back a segment.
+     *
+     * @param tableSize the size of the table to create
+     */
+    private Collection<Node>[] createTable(int tableSize) {
+        return new Collection[tableSize];
+    }
+
+    /** Removes all the mappings from this map. */
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                size.add(-segment.count);
+                segment.count = 0;
+                segment.buckets = newTable(segmentTableSize);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    @Override
+    public boolean containsKey(K key) {
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).read(key, hash, node -> node != null);
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     */
+    @Override
+    public V get(K key) {
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).read(key, hash, node -> node == null ? null : node.value);
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced.
+     */
+    @Override
+    public void put(K key, V value) {
+        int hash = spread(key.hashCode());
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            Node node = segment.find(key, hash);
+            if (node != null) {
+                node.value = value;
+                return;
+            }
+            segment.buckets[hash & (segment.buckets.length - 1)].add(new Node(key, value));
+            segment.count += 1;
+            size.increment();
+
+            if ((1.0 * segment.count / segment.buckets.length) > maxLF) {
+                segment.resize();
+            }
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a Set of the keys contained in this map. Segments are copied
+     * one at a time, so concurrent updates to other segments may or may
+     * not be reflected.
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                for (Collection<Node> bucket : segment.buckets) {
+                    for (Node node : bucket) {
+                        keys.add(node.key);
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     */
+    @Override
+    public V remove(K key) {
+        return removeIf(key, null, false);
+    }
+
+    /**
+     * Removes the entry for the specified key only if it is currently mapped to
+     * the specified value.
+     */
+    @Override
+    public V remove(K key, V value) {
+        return removeIf(key, value, true);
+    }
+
+    /** Removes key, if present and (when matchValue is set) mapped to value */
+    private V removeIf(K key, V value, boolean matchValue) {
+        int hash = spread(key.hashCode());
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            Node node = segment.find(key, hash);
+            if (node == null || (matchValue && !node.value.equals(value))) {
+                return null;
+            }
+            segment.buckets[hash & (segment.buckets.length - 1)].remove(node);
+            segment.count -= 1;
+            size.decrement();
+            return node.value;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Iterates over a snapshot of the keys, as returned by keySet() */
+    @Override
+    public Iterator<K> iterator() {
+        return keySet().iterator();
+    }
+}
@@ -25,23 +25,27 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         }
     }
 
+    /** Number of old buckets moved to the new table per operation while resizing incrementally */
+    private static final int MIGRATE_STEP = 8;
+
     /* Instance Variables */
     private Collection<Node>[] buckets;
     // You should probably define some more!
     private int size;
     private final double maxLF;
 
+    /* Incremental resizing: the table being drained and the next bucket to move */
+    private final boolean incrementalResize;
+    private Collection<Node>[] oldBuckets;
+    private int migrateIndex;
+
     /** Constructors */
     public MyHashMap() {
-        size = 0;
-        maxLF = 0.75;
-        setUp(16);
+        this(16, 0.75, false);
     }
 
     public MyHashMap(int initialSize) {
-        size = 0;
-        maxLF = 0.75;
-        setUp(initialSize);
+        this(initialSize, 0.75, false);
     }
 
     /**
@@ -52,8 +56,24 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * @param maxLoad maximum load factor
      */
     public MyHashMap(int initialSize, double maxLoad) {
+        this(initialSize, maxLoad, false);
+    }
+
+    /**
+     * MyHashMap constructor that can resize incrementally. Instead of
+     * rehashing every node in the put() that crosses the load factor, an
+     * incremental map keeps the old and new tables live and moves a few
+     * old buckets into the new table on every get/put/remove, so no
+     * single operation pays for the whole resize.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     * @param incremental true to spread resizing across operations
+     */
+    public MyHashMap(int initialSize, double maxLoad, boolean incremental) {
         size = 0;
         maxLF = maxLoad;
+        incrementalResize = incremental;
         setUp(initialSize);
     }
 
@@ -66,6 +86,8 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         for (int i = 0; i < buckets.length; i++) {
             buckets[i] = createBucket();
         }
+        oldBuckets = null;
+        migrateIndex = 0;
     }
 
     /** Returns true if the load factor exceeds the maximum */
@@ -73,6 +95,53 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         return (1.0 * size / buckets.length) > maxLF;
     }
 
+    /** Returns true if an incremental resize is still draining the old table */
+    private boolean isMigrating() {
+        return oldBuckets != null;
+    }
+
+    /**
+     * Returns the bucket that holds (or would hold) key. While migrating,
+     * keys whose old bucket has not been moved yet still live in the old table.
+     */
+    private Collection<Node> bucketFor(K key) {
+        if (isMigrating()) {
+            int oldIndex = hashIndex(key, oldBuckets.length);
+            if (oldIndex >= migrateIndex) {
+                return oldBuckets[oldIndex];
+            }
+        }
+        return buckets[hashIndex(key, buckets.length)];
+    }
+
+    /** Starts an incremental resize into a new table of the given size */
+    private void startMigration(int tableSize) {
+        oldBuckets = buckets;
+        migrateIndex = 0;
+        buckets = createTable(tableSize);
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = createBucket();
+        }
+    }
+
+    /** Moves up to count old buckets into the new table */
+    private void migrate(int count) {
+        if (!isMigrating()) {
+            return;
+        }
+        int end = migrateIndex + Math.min(count, oldBuckets.length - migrateIndex);
+        for (; migrateIndex < end; migrateIndex++) {
+            for (Node node : oldBuckets[migrateIndex]) {
+                buckets[hashIndex(node.key, buckets.length)].add(node);
+            }
+            oldBuckets[migrateIndex] = null;
+        }
+        if (migrateIndex == oldBuckets.length) {
+            oldBuckets = null;
+            migrateIndex = 0;
+        }
+    }
+
     /** Calculate hash index based on bucket length */
     private int hashIndex(K key, int length) {
         return Math.floorMod(key.hashCode(), length);
@@ -124,6 +193,21 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         return new LinkedList<>();
     }
 
+    /**
+     * Returns the node with the given key in bucket, or null if there is none.
+     *
+     * The default walks the bucket with its iterator. Override this method
+     * alongside createBucket() when the bucket type can find a key faster.
+     */
+    protected Node findNode(Collection<Node> bucket, K key) {
+        for (Node item : bucket) {
+            if (item.key.equals(key)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns a table to back our hash table. As per the comment
      * above, this table can be an array of Collection objects
@@ -148,14 +232,10 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     /** Returns true if this map contains a mapping for the specified key. */
     @Override
     public boolean containsKey(K key) {
-        int index = hashIndex(key, buckets.length);
+        migrate(MIGRATE_STEP);
+        Collection<Node> bucket = bucketFor(key);
 
-        for (Node item : buckets[index]) {
-            if (item.key.equals(key)) {
-                return true;
-            }
-        }
-        return false;
+        return findNode(bucket, key) != null;
     }
 
     /**
@@ -164,14 +244,11 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      */
     @Override
     public V get(K key) {
-        int index = hashIndex(key, buckets.length);
+        migrate(MIGRATE_STEP);
+        Collection<Node> bucket = bucketFor(key);
 
-        for (Node item : buckets[index]) {
-            if (item.key.equals(key)) {
-                return item.value;
-            }
-        }
-        return null;
+        Node node = findNode(bucket, key);
+        return node == null ? null : node.value;
     }
 
     /** Returns the number of key-value mappings in this map. */
@@ -187,20 +264,26 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      */
     @Override
     public void put(K key, V value) {
-        int index = hashIndex(key, buckets.length);
+        migrate(MIGRATE_STEP);
+        Collection<Node> bucket = bucketFor(key);
 
-        for (Node item : buckets[index]) {
-            if (item.key.equals(key)) {
-                item.value = value;
-                return;
-            }
+        Node node = findNode(bucket, key);
+        if (node != null) {
+            node.value = value;
+            return;
         }
 
-        buckets[index].add(createNode(key, value));
+        bucket.add(createNode(key, value));
         size += 1;
 
         if (exceedsMaxLoadFactor()) {
-            buckets = resizedTable(2 * buckets.length);
+            if (!incrementalResize) {
+                buckets = resizedTable(2 * buckets.length);
+            } else {
+                // Only reachable if the previous resize has not drained yet
+                migrate(Integer.MAX_VALUE);
+                startMigration(2 * buckets.length);
+            }
         }
     }
 
@@ -214,6 +297,13 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
                 keys.add(node.key);
             }
         }
+        if (isMigrating()) {
+            for (int i = migrateIndex; i < oldBuckets.length; i++) {
+                for (Node node : oldBuckets[i]) {
+                    keys.add(node.key);
+                }
+            }
+        }
         return keys;
     }
 
@@ -225,18 +315,12 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      */
     @Override
     public V remove(K key) {
-        int index = hashIndex(key, buckets.length);
-        Node node = null;
-
-        for (Node item : buckets[index]) {
-            if (item.key.equals(key)) {
-                node = item;
-                break;
-            }
-        }
+        migrate(MIGRATE_STEP);
+        Collection<Node> bucket = bucketFor(key);
+        Node node = findNode(bucket, key);
 
         if (node != null) {
-            buckets[index].remove(node);
+            bucket.remove(node);
             return node.value;
         } else {
             return null;
@@ -250,18 +334,12 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      */
     @Override
     public V remove(K key, V value) {
-        int index = hashIndex(key, buckets.length);
-        Node node = null;
-
-        for (Node item : buckets[index]) {
-            if (item.key.equals(key) && item.value.equals(value)) {
-                node = item;
-                break;
-            }
-        }
+        migrate(MIGRATE_STEP);
+        Collection<Node> bucket = bucketFor(key);
+        Node node = findNode(bucket, key);
 
-        if (node != null) {
-            buckets[index].remove(node);
+        if (node != null && node.value.equals(value)) {
+            bucket.remove(node);
             return node.value;
         } else {
             return null;
@@ -270,19 +348,41 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
 
     @Override
     public Iterator<K> iterator() {
-        return new HashMapIterator<>();
+        return new HashMapIterator();
     }
 
-    private static class HashMapIterator<K> implements Iterator<K> {
+    /**
+     * Walks the buckets in table order, followed by the old buckets that an
+     * incremental resize has not moved yet.
+     */
+    private class HashMapIterator implements Iterator<K> {
+        private Collection<Node>[] table = buckets;
+        private int index = 0;
+        private Iterator<Node> current = Collections.emptyIterator();
 
         @Override
         public boolean hasNext() {
-            return false;
+            while (!current.hasNext()) {
+                if (index == table.length) {
+                    if (table != buckets || !isMigrating()) {
+                        return false;
+                    }
+                    table = oldBuckets;
+                    index = migrateIndex;
+                    continue;
+                }
+                current = table[index].iterator();
+                index += 1;
+            }
+            return true;
         }
 
         @Override
         public K next() {
-            return null;
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next().key;
         }
     }
 
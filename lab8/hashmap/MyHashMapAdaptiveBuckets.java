@@ -0,0 +1,161 @@
+package hashmap;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.TreeMap;
+
+/**
+ * Hash Table with buckets that adapt to collisions.
+ * A bucket starts out as a small Array List. Once more than TREEIFY_THRESHOLD
+ * nodes land in the same bucket it turns into a balanced tree (a red-black
+ * TreeMap) so lookups stay logarithmic, and it turns back into a list
+ * when removals bring it down to UNTREEIFY_THRESHOLD nodes.
+ * The gap between the two thresholds keeps a bucket from flipping back and
+ * forth when its size hovers around the limit.
+ *
+ * Tree buckets need to order their keys, so we restrict our map to
+ * only allow comparable keys. Keys are still told apart with equals, like
+ * in every other bucket: keys that compare as 0 without being equal share
+ * one tree entry, which holds a small list of their nodes.
+ */
+public class MyHashMapAdaptiveBuckets<K extends Comparable<K>, V> extends MyHashMap<K, V> {
+
+    /** Bucket size above which a list bucket becomes a tree */
+    static final int TREEIFY_THRESHOLD = 8;
+
+    /** Bucket size at or below which a tree bucket becomes a list again */
+    static final int UNTREEIFY_THRESHOLD = 6;
+
+    /**
+     * Constructor that creates a backing array with default
+     * initial size and load factor
+     */
+    public MyHashMapAdaptiveBuckets() {
+        super();
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize
+     * and default load factor
+     *
+     * @param initialSize initial size of backing array
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize) {
+        super(initialSize);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize.
+     * The load factor (# items / # buckets) should always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize, double maxLoad) {
+        super(initialSize, maxLoad);
+    }
+
+    @Override
+    protected Collection<Node> createBucket() {
+        return new AdaptiveBucket();
+    }
+
+    @Override
+    protected Node findNode(Collection<Node> bucket, K key) {
+        return ((AdaptiveBucket) bucket).find(key);
+    }
+
+    /**
+     * A bucket that is either a list (tree == null) or a tree keyed by the
+     * node keys (list == null), never both. Each tree entry holds the nodes
+     * whose keys compare equal to its key, almost always just one.
+     */
+    class AdaptiveBucket extends AbstractCollection<Node> {
+        private ArrayList<Node> list = new ArrayList<>(2);
+        private TreeMap<K, ArrayList<Node>> tree;
+        private int treeSize;
+
+        /** Returns true if this bucket is currently a tree */
+        boolean isTree() {
+            return tree != null;
+        }
+
+        /** Returns the node with the given key, or null */
+        Node find(K key) {
+            ArrayList<Node> nodes = tree != null ? tree.get(key) : list;
+            if (nodes == null) {
+                return null;
+            }
+            for (int i = 0; i < nodes.size(); i++) {
+                Node item = nodes.get(i);
+                if (item.key.equals(key)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        /** Adds node to the tree, next to any nodes whose keys compare equal to it */
+        private void treeAdd(Node node) {
+            tree.computeIfAbsent(node.key, k -> new ArrayList<>(1)).add(node);
+            treeSize += 1;
+        }
+
+        @Override
+        public boolean add(Node node) {
+            if (tree != null) {
+                treeAdd(node);
+                return true;
+            }
+            list.add(node);
+            if (list.size() > TREEIFY_THRESHOLD) {
+                tree = new TreeMap<>();
+                treeSize = 0;
+                for (Node item : list) {
+                    treeAdd(item);
+                }
+                list = null;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (tree == null) {
+                return list.remove(o);
+            }
+            Node node = (Node) o;
+            ArrayList<Node> nodes = tree.get(node.key);
+            if (nodes == null || !nodes.remove(node)) {
+                return false;
+            }
+            if (nodes.isEmpty()) {
+                tree.remove(node.key);
+            }
+            treeSize -= 1;
+            if (treeSize <= UNTREEIFY_THRESHOLD) {
+                list = new ArrayList<>(treeSize);
+                for (ArrayList<Node> ties : tree.values()) {
+                    list.addAll(ties);
+                }
+                tree = null;
+            }
+            return true;
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            if (tree == null) {
+                return list.iterator();
+            }
+            return tree.values().stream().flatMap(ArrayList::stream).iterator();
+        }
+
+        @Override
+        public int size() {
+            return tree != null ? treeSize : list.size();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package hashmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Hash Table with open addressing (linear probing) instead of buckets.
+ * Keys and values live in two parallel arrays, so a lookup touches the
+ * arrays directly instead of going through a bucket collection, its
+ * iterator and a Node.
+ *
+ * Removal uses backward-shift deletion, so no tombstones are left behind
+ * and probe sequences stay as short as if the key was never inserted.
+ *
+ * Assumes null keys will never be inserted.
+ */
+public class MyHashMapOpenAddressing<K, V> implements Map61B<K, V> {
+
+    /** Largest table size, as in java.util.HashMap: the largest power of two an int holds */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /* Instance Variables */
+    private K[] keys;
+    private V[] values;
+    private int size;
+    private final double maxLF;
+
+    /**
+     * Constructor that creates a backing array with default
+     * initial size and load factor
+     */
+    public MyHashMapOpenAddressing() {
+        this(16, 0.75);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize
+     * and default load factor
+     *
+     * @param initialSize initial size of backing array
+     */
+    public MyHashMapOpenAddressing(int initialSize) {
+        this(initialSize, 0.75);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize.
+     * The load factor (# items / # slots) should always be <= loadFactor.
+     * Since every item takes a slot, loadFactor must be less than 1.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapOpenAddressing(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        size = 0;
+        maxLF = maxLoad;
+        setUp(tableSizeFor(initialSize));
+    }
+
+    /** Helper Methods */
+
+    /** Returns the smallest power of two that is >= n (and at least 2),
+     * or MAXIMUM_CAPACITY if n is larger than that */
+    static int tableSizeFor(int n) {
+        if (n >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        int capacity = 2;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /** Creates empty key and value arrays of the given (power of two) size */
+    private void setUp(int tableSize) {
+        keys = (K[]) new Object[tableSize];
+        values = (V[]) new Object[tableSize];
+    }
+
+    /** Returns true if the load factor exceeds the maximum */
+    private boolean exceedsMaxLoadFactor() {
+        return (1.0 * size / keys.length) > maxLF;
+    }
+
+    /**
+     * Calculate the home slot of a key. The high bits of the hash code are
+     * folded into the low ones since the mask only keeps the low bits.
+     */
+    private int hashIndex(Object key, int length) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & (length - 1);
+    }
+
+    /** Returns the slot holding key, or -1 if key is not in the table */
+    private int findSlot(K key) {
+        int mask = keys.length - 1;
+        int i = hashIndex(key, keys.length);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Rehashes every entry into arrays of the given size */
+    private void resize(int tableSize) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        setUp(tableSize);
+
+        int mask = tableSize - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = hashIndex(oldKeys[j], tableSize);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Empties the given slot and shifts later entries of the same probe
+     * run back into the hole, so lookups never stop early at a gap.
+     */
+    private void deleteSlot(int hole) {
+        int mask = keys.length - 1;
+        int i = (hole + 1) & mask;
+        while (keys[i] != null) {
+            int home = hashIndex(keys[i], keys.length);
+            // Move the entry back if its home is not in the cyclic range (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size -= 1;
+    }
+
+    /** Removes all the mappings from this map. */
+    @Override
+    public void clear() {
+        size = 0;
+        setUp(keys.length);
+    }
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    @Override
+    public boolean containsKey(K key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     */
+    @Override
+    public V get(K key) {
+        int slot = findSlot(key);
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced.
+     */
+    @Override
+    public void put(K key, V value) {
+        int mask = keys.length - 1;
+        int i = hashIndex(key, keys.length);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // Probing relies on an empty slot, so grow rather than take the last one
+        if (size + 1 == keys.length) {
+            if (keys.length == MAXIMUM_CAPACITY) {
+                throw new IllegalStateException("map is full");
+            }
+            resize(2 * keys.length);
+            put(key, value);
+            return;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size += 1;
+
+        if (exceedsMaxLoadFactor() && keys.length < MAXIMUM_CAPACITY) {
+            resize(2 * keys.length);
+        }
+    }
+
+    /** Returns a Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keySet = new HashSet<>();
+        for (K key : keys) {
+            if (key != null) {
+                keySet.add(key);
+            }
+        }
+        return keySet;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     */
+    @Override
+    public V remove(K key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = values[slot];
+        deleteSlot(slot);
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if it is currently mapped to
+     * the specified value.
+     */
+    @Override
+    public V remove(K key, V value) {
+        int slot = findSlot(key);
+        if (slot < 0 || !values[slot].equals(value)) {
+            return null;
+        }
+        V removed = values[slot];
+        deleteSlot(slot);
+        return removed;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new OpenAddressingIterator();
+    }
+
+    /** Walks the key array directly, skipping empty slots */
+    private class OpenAddressingIterator implements Iterator<K> {
+        private int pos;
+        private int seen;
+
+        @Override
+        public boolean hasNext() {
+            return seen < size;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (keys[pos] == null) {
+                pos += 1;
+            }
+            seen += 1;
+            return keys[pos++];
+        }
+    }
+}
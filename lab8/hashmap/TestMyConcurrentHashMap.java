@@ -0,0 +1,167 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Tests of the lock-striped concurrent hash table. */
+public class TestMyConcurrentHashMap {
+
+    /** Same map with ArrayList buckets, to check createBucket() is honored */
+    private static class ALBuckets<K, V> extends MyConcurrentHashMap<K, V> {
+        ALBuckets() {
+            super();
+        }
+
+        ALBuckets(int initialSize, double maxLoad, int concurrencyLevel) {
+            super(initialSize, maxLoad, concurrencyLevel);
+        }
+
+        @Override
+        protected Collection<Node> createBucket() {
+            return new ArrayList<>();
+        }
+    }
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new MyConcurrentHashMap<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyConcurrentHashMap<>());
+        TestMyHashMap.sanityGetTest(new MyConcurrentHashMap<>());
+        TestMyHashMap.sanitySizeTest(new MyConcurrentHashMap<>());
+        TestMyHashMap.sanityPutTest(new MyConcurrentHashMap<>());
+        TestMyHashMap.sanityKeySetTest(new MyConcurrentHashMap<>());
+        TestMyHashMap.functionalityTest(new MyConcurrentHashMap<>(), new MyConcurrentHashMap<>());
+    }
+
+    @Test
+    public void bucketTypeTest() {
+        TestMyHashMap.sanityKeySetTest(new ALBuckets<>());
+        TestMyHashMap.functionalityTest(new ALBuckets<>(), new ALBuckets<>());
+    }
+
+    @Test
+    public void singleSegmentTest() {
+        TestMyHashMap.sanitySizeTest(new MyConcurrentHashMap<>(1, 0.75, 1));
+        TestMyHashMap.sanityKeySetTest(new MyConcurrentHashMap<>(1, 0.75, 1));
+    }
+
+    @Test
+    public void removeTest() {
+        MyConcurrentHashMap<String, Integer> q = new MyConcurrentHashMap<>();
+        q.put("a", 1);
+        q.put("b", 2);
+        assertNull(q.remove("a", 2));
+        assertEquals(1, q.remove("a", 1).intValue());
+        assertEquals(2, q.remove("b").intValue());
+        assertNull(q.remove("b"));
+        assertEquals(0, q.size());
+    }
+
+    /** Each thread owns a key range, so every put must still be visible at the end. */
+    @Test
+    public void concurrentPutGetTest() throws InterruptedException {
+        int threads = 8;
+        int perThread = 5000;
+        MyConcurrentHashMap<Integer, Integer> map = new MyConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = base; i < base + perThread; i++) {
+                        map.put(i, i);
+                        assertEquals(i, map.get(i).intValue());
+                        if (i % 3 == 0) {
+                            assertEquals(i, map.remove(i).intValue());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertNull(failure.get());
+        int expected = 0;
+        for (int i = 0; i < threads * perThread; i++) {
+            assertEquals(i % 3 != 0, map.containsKey(i));
+            if (i % 3 != 0) {
+                expected += 1;
+            }
+        }
+        assertEquals(expected, map.size());
+        assertEquals(expected, map.keySet().size());
+    }
+
+    /**
+     * Readers look up keys that never change while writers keep adding,
+     * removing and resizing in the same single segment. Every optimistic
+     * read that a writer overlaps must fall back to the lock and still
+     * see the right value.
+     */
+    @Test
+    public void optimisticReadsDuringWritesTest() throws InterruptedException {
+        checkOptimisticReads(new MyConcurrentHashMap<>(1, 0.75, 1));
+        checkOptimisticReads(new ALBuckets<>(1, 0.75, 1));
+    }
+
+    private static void checkOptimisticReads(MyConcurrentHashMap<Integer, Integer> map)
+            throws InterruptedException {
+        int stable = 200;
+        for (int i = 0; i < stable; i++) {
+            map.put(i, -i);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int round = 0; round < 20; round++) {
+                for (int i = stable; i < stable + 2000; i++) {
+                    map.put(i, i);
+                }
+                for (int i = stable; i < stable + 2000; i++) {
+                    map.remove(i);
+                }
+                Thread.yield();
+            }
+        });
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                try {
+                    while (writer.isAlive()) {
+                        for (int i = 0; i < stable; i++) {
+                            assertEquals(-i, map.get(i).intValue());
+                            assertTrue(map.containsKey(i));
+                        }
+                        Thread.yield();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertEquals(stable, map.size());
+    }
+}
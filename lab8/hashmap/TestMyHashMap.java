@@ -27,7 +27,7 @@ public class TestMyHashMap {
         sanityClearTest(new MyHashMap<>());
     }
 
-    public static void sanityClearTest(MyHashMap<String, Integer> b) {
+    public static void sanityClearTest(Map61B<String, Integer> b) {
         for (int i = 0; i < 455; i++) {
             b.put("hi" + i, 1);
             //make sure put is working via containsKey and get
@@ -47,7 +47,7 @@ public class TestMyHashMap {
         sanityContainsKeyTest(new MyHashMap<>());
     }
 
-    public static void sanityContainsKeyTest(MyHashMap<String, Integer> b) {
+    public static void sanityContainsKeyTest(Map61B<String, Integer> b) {
         assertFalse(b.containsKey("waterYouDoingHere"));
         b.put("waterYouDoingHere", 0);
         assertTrue(b.containsKey("waterYouDoingHere"));
@@ -59,7 +59,7 @@ public class TestMyHashMap {
         sanityGetTest(new MyHashMap<>());
     }
 
-    public static void sanityGetTest(MyHashMap<String, Integer> b) {
+    public static void sanityGetTest(Map61B<String, Integer> b) {
         assertEquals(null, b.get("starChild"));
         b.put("starChild", 5);
         assertNotEquals(null, b.get("starChild"));
@@ -74,7 +74,7 @@ public class TestMyHashMap {
         sanitySizeTest(new MyHashMap<>());
     }
 
-    public static void sanitySizeTest(MyHashMap<String, Integer> b) {
+    public static void sanitySizeTest(Map61B<String, Integer> b) {
         assertEquals(0, b.size());
         b.put("hi", 1);
         assertEquals(1, b.size());
@@ -90,7 +90,7 @@ public class TestMyHashMap {
         sanityPutTest(new MyHashMap<>());
     }
 
-    public static void sanityPutTest(MyHashMap<String, Integer> b) {
+    public static void sanityPutTest(Map61B<String, Integer> b) {
         b.put("hi", 1);
         assertTrue(b.containsKey("hi") && b.get("hi") != null);
     }
@@ -100,7 +100,7 @@ public class TestMyHashMap {
         sanityKeySetTest(new MyHashMap<>());
     }
 
-    public static void sanityKeySetTest(MyHashMap<String, Integer> b) {
+    public static void sanityKeySetTest(Map61B<String, Integer> b) {
         HashSet<String> values = new HashSet<String>();
         for (int i = 0; i < 455; i++) {
             b.put("hi" + i, 1);
@@ -118,8 +118,8 @@ public class TestMyHashMap {
         functionalityTest(new MyHashMap<>(), new MyHashMap<>());
     }
 
-    public static void functionalityTest(MyHashMap<String, String> dictionary,
-                                   MyHashMap<String, Integer> studentIDs) {
+    public static void functionalityTest(Map61B<String, String> dictionary,
+                                   Map61B<String, Integer> studentIDs) {
         assertEquals(0, dictionary.size());
 
         // can put objects in dictionary and get them
@@ -158,4 +158,50 @@ public class TestMyHashMap {
         assertEquals(345, studentIDs.get("evil alan").intValue());
         assertEquals(studentIDs.get("evil alan"), studentIDs.get("alan"));
     }
+
+    // Same checks, but with a map that spreads its resizes across operations.
+    @Test
+    public void incrementalResizeTest() {
+        sanityClearTest(new MyHashMap<>(16, 0.75, true));
+        sanitySizeTest(new MyHashMap<>(16, 0.75, true));
+        sanityKeySetTest(new MyHashMap<>(16, 0.75, true));
+        functionalityTest(new MyHashMap<>(16, 0.75, true), new MyHashMap<>(16, 0.75, true));
+    }
+
+    // Keys must stay reachable while they are split between the old and new tables.
+    @Test
+    public void incrementalResizeMidMigrationTest() {
+        MyHashMap<Integer, Integer> b = new MyHashMap<>(4, 0.75, true);
+        for (int i = 0; i < 1000; i++) {
+            b.put(i, i);
+            for (int j = 0; j <= i; j += 37) {
+                assertEquals(j, b.get(j).intValue());
+            }
+        }
+        assertEquals(1000, b.size());
+        assertEquals(1000, b.keySet().size());
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(i, b.remove(i).intValue());
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, b.containsKey(i));
+        }
+    }
+
+    @Test
+    public void iteratorTest() {
+        iteratorTest(new MyHashMap<>());
+        iteratorTest(new MyHashMap<>(4, 0.75, true));
+    }
+
+    public static void iteratorTest(Map61B<String, Integer> b) {
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        Set<String> seen = new HashSet<>();
+        for (String key : b) {
+            assertTrue(seen.add(key));
+        }
+        assertEquals(b.keySet(), seen);
+    }
 }
@@ -36,6 +36,11 @@ public class TestMyHashMapBuckets {
         b = new MyHashMapPQBuckets<>();
         c = new MyHashMapPQBuckets<>();
         d = new MyHashMapPQBuckets<>();
+
+        a = new MyHashMapAdaptiveBuckets<>();
+        b = new MyHashMapAdaptiveBuckets<>();
+        c = new MyHashMapAdaptiveBuckets<>();
+        d = new MyHashMapAdaptiveBuckets<>();
     }
 
     //assumes put/size/containsKey/get work
@@ -46,6 +51,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityClearTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityClearTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityClearTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityClearTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -56,6 +62,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -66,6 +73,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityGetTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityGetTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityGetTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -76,6 +84,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanitySizeTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanitySizeTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanitySizeTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     //assumes get/containskey work
@@ -86,6 +95,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityPutTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityPutTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityPutTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     @Test
@@ -95,6 +105,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityKeySetTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityKeySetTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityKeySetTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // Test for general functionality and that the properties of Maps hold.
@@ -105,5 +116,99 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.functionalityTest(new MyHashMapTSBuckets<>(), new MyHashMapTSBuckets<>());
         TestMyHashMap.functionalityTest(new MyHashMapHSBuckets<>(), new MyHashMapHSBuckets<>());
         TestMyHashMap.functionalityTest(new MyHashMapPQBuckets<>(), new MyHashMapPQBuckets<>());
+        TestMyHashMap.functionalityTest(new MyHashMapAdaptiveBuckets<>(), new MyHashMapAdaptiveBuckets<>());
+    }
+
+    /** Keys that all share one hashCode, to force every key into the same bucket. */
+    private static class Colliding implements Comparable<Colliding> {
+        private final int id;
+
+        Colliding(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+
+        int id() {
+            return id;
+        }
+
+        @Override
+        public int compareTo(Colliding o) {
+            return Integer.compare(id, o.id);
+        }
+    }
+
+    // Adaptive buckets must stay correct as they turn into trees and back into lists.
+    @Test
+    public void adaptiveBucketCollisionTest() {
+        MyHashMapAdaptiveBuckets<Colliding, Integer> map = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new Colliding(i), i);
+        }
+        assertEquals(100, map.size());
+        assertEquals(100, map.keySet().size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, map.get(new Colliding(i)).intValue());
+        }
+        map.put(new Colliding(7), 700);
+        assertEquals(700, map.get(new Colliding(7)).intValue());
+
+        for (int i = 0; i < 97; i++) {
+            assertNotNull(map.remove(new Colliding(i)));
+        }
+        assertNull(map.remove(new Colliding(0)));
+        assertNull(map.remove(new Colliding(98), 0));
+        for (int i = 97; i < 100; i++) {
+            assertEquals(i, map.remove(new Colliding(i), i).intValue());
+        }
+        assertFalse(map.containsKey(new Colliding(99)));
+    }
+
+    /** Colliding keys whose compareTo only looks at id / 4, so it ties for keys that are not equal. */
+    private static class CoarselyOrdered extends Colliding {
+        CoarselyOrdered(int id) {
+            super(id);
+        }
+
+        @Override
+        public int compareTo(Colliding o) {
+            return Integer.compare(id() / 4, ((CoarselyOrdered) o).id() / 4);
+        }
+    }
+
+    // Tree buckets must tell keys apart with equals, not compareTo, like list buckets do.
+    @Test
+    public void adaptiveBucketCompareToTiesTest() {
+        MyHashMapAdaptiveBuckets<Colliding, Integer> map = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < 40; i++) {
+            map.put(new CoarselyOrdered(i), i);
+        }
+        assertEquals(40, map.size());
+        assertEquals(40, map.keySet().size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, map.get(new CoarselyOrdered(i)).intValue());
+        }
+        map.put(new CoarselyOrdered(5), 500);
+        assertEquals(500, map.get(new CoarselyOrdered(5)).intValue());
+        assertEquals(4, map.get(new CoarselyOrdered(4)).intValue());
+
+        assertEquals(6, map.remove(new CoarselyOrdered(6)).intValue());
+        assertFalse(map.containsKey(new CoarselyOrdered(6)));
+        assertTrue(map.containsKey(new CoarselyOrdered(7)));
+        for (int i = 0; i < 40; i++) {
+            if (i != 6) {
+                assertNotNull(map.remove(new CoarselyOrdered(i)));
+            }
+        }
+        assertTrue(map.keySet().isEmpty());
     }
 }
@@ -0,0 +1,131 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/** Tests of the open addressing hash table. */
+public class TestMyHashMapOpenAddressing {
+
+    @Test
+    public void sanityClearTest() {
+        TestMyHashMap.sanityClearTest(new MyHashMapOpenAddressing<>());
+    }
+
+    @Test
+    public void sanityContainsKeyTest() {
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapOpenAddressing<>());
+    }
+
+    @Test
+    public void sanityGetTest() {
+        TestMyHashMap.sanityGetTest(new MyHashMapOpenAddressing<>());
+    }
+
+    @Test
+    public void sanitySizeTest() {
+        TestMyHashMap.sanitySizeTest(new MyHashMapOpenAddressing<>());
+    }
+
+    @Test
+    public void sanityPutTest() {
+        TestMyHashMap.sanityPutTest(new MyHashMapOpenAddressing<>());
+    }
+
+    @Test
+    public void sanityKeySetTest() {
+        TestMyHashMap.sanityKeySetTest(new MyHashMapOpenAddressing<>());
+    }
+
+    @Test
+    public void functionalityTest() {
+        TestMyHashMap.functionalityTest(new MyHashMapOpenAddressing<>(),
+                new MyHashMapOpenAddressing<>());
+    }
+
+    /** Keys that all hash to the same slot form one long probe run. */
+    @Test
+    public void removeFromCollidingRunTest() {
+        MyHashMapOpenAddressing<Integer, Integer> q = new MyHashMapOpenAddressing<>(64);
+        for (int i = 0; i < 10; i++) {
+            q.put(i * 64, i);
+        }
+        assertEquals(3, q.remove(3 * 64).intValue());
+        assertEquals(0, q.remove(0).intValue());
+        assertNull(q.remove(3 * 64));
+        assertEquals(8, q.size());
+        for (int i = 1; i < 10; i++) {
+            if (i != 3) {
+                assertEquals(i, q.get(i * 64).intValue());
+            }
+        }
+        assertNull(q.remove(9 * 64, 42));
+        assertEquals(9, q.remove(9 * 64, 9).intValue());
+        assertFalse(q.containsKey(9 * 64));
+    }
+
+    @Test
+    public void randomizedAgainstHashMapTest() {
+        Random random = new Random(61);
+        MyHashMapOpenAddressing<Integer, Integer> q = new MyHashMapOpenAddressing<>();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                q.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), q.remove(key));
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        for (int key = 0; key < 500; key++) {
+            assertEquals(expected.get(key), q.get(key));
+        }
+        Set<Integer> iterated = new HashSet<>();
+        for (int key : q) {
+            iterated.add(key);
+        }
+        assertEquals(expected.keySet(), iterated);
+        assertEquals(expected.keySet(), q.keySet());
+    }
+
+    @Test
+    public void tableSizeForCapsAtMaximumCapacityTest() {
+        assertEquals(2, MyHashMapOpenAddressing.tableSizeFor(0));
+        assertEquals(32, MyHashMapOpenAddressing.tableSizeFor(17));
+        assertEquals(1 << 30, MyHashMapOpenAddressing.tableSizeFor(1 << 30));
+        // Used to overflow to a negative capacity and loop forever
+        assertEquals(1 << 30, MyHashMapOpenAddressing.tableSizeFor((1 << 30) + 1));
+        assertEquals(1 << 30, MyHashMapOpenAddressing.tableSizeFor(Integer.MAX_VALUE));
+    }
+
+    /** Small tables and load factors near 1 fill their last free slot before the load factor says to grow */
+    @Test
+    public void smallTablesAndHighLoadFactorsTest() {
+        int[] sizes = {1, 2, 4, 16};
+        double[] loads = {0.5, 0.75, 0.9, 0.95, 0.99};
+        for (int initialSize : sizes) {
+            for (double load : loads) {
+                MyHashMapOpenAddressing<Integer, Integer> q = new MyHashMapOpenAddressing<>(initialSize, load);
+                for (int i = 0; i < 100; i++) {
+                    q.put(i, -i);
+                    q.put(i, i);
+                }
+                assertEquals(100, q.size());
+                for (int i = 0; i < 100; i++) {
+                    assertEquals((Integer) i, q.get(i));
+                }
+            }
+        }
+        MyHashMapOpenAddressing<String, Integer> q = new MyHashMapOpenAddressing<>(4);
+        for (int i = 0; i < 4; i++) {
+            q.put("k" + i, i);
+        }
+        assertEquals(4, q.size());
+    }
+}
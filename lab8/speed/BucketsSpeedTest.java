@@ -11,6 +11,8 @@ import hashmap.MyHashMapLLBuckets;
 import hashmap.MyHashMapTSBuckets;
 import hashmap.MyHashMapHSBuckets;
 import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapAdaptiveBuckets;
+import hashmap.MyHashMapOpenAddressing;
 
 /** Performs a timing test on three different set implementations.
  *  @author Neil Kulkarni adapted from Josh Hug, Brendan Hu
@@ -42,6 +44,8 @@ public class BucketsSpeedTest {
             timeRandomMap61B(new MyHashMapTSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapHSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapPQBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapAdaptiveBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapOpenAddressing<>(), N, L);
 
             System.out.print("\nWould you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
@@ -0,0 +1,31 @@
+package bench;
+
+/**
+ * Benchmark key whose hash code is chosen by the key distribution, so the
+ * same key type can model well spread keys and heavily colliding ones.
+ * Keys are comparable so the tree and priority queue buckets accept them.
+ */
+public final class BenchKey implements Comparable<BenchKey> {
+    private final int id;
+    private final int hash;
+
+    public BenchKey(int id, int hash) {
+        this.id = id;
+        this.hash = hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BenchKey && ((BenchKey) o).id == id;
+    }
+
+    @Override
+    public int compareTo(BenchKey o) {
+        return Integer.compare(id, o.id);
+    }
+}
@@ -0,0 +1,62 @@
+package bench;
+
+import hashmap.Map61B;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+/** Adapts java.util.HashMap to Map61B so it can be benchmarked as a baseline. */
+public class JavaHashMap<K, V> implements Map61B<K, V> {
+    private final HashMap<K, V> map;
+
+    public JavaHashMap(int initialSize, double maxLoad) {
+        map = new HashMap<>(initialSize, (float) maxLoad);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    @Override
+    public V remove(K key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V current = map.get(key);
+        return map.remove(key, value) ? current : null;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return map.keySet().iterator();
+    }
+}
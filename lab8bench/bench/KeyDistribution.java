@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/** The key sets the benchmarks are run over. */
+public enum KeyDistribution {
+    /** Keys 0..N-1 inserted in order, hashed like Integers. */
+    SEQUENTIAL {
+        @Override
+        BenchKey[] keys(int n, Random random) {
+            BenchKey[] keys = new BenchKey[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = new BenchKey(i, i);
+            }
+            return keys;
+        }
+    },
+
+    /** N distinct random ints, hashed like Integers. */
+    RANDOM {
+        @Override
+        BenchKey[] keys(int n, Random random) {
+            BenchKey[] keys = new BenchKey[n];
+            Set<Integer> used = new HashSet<>();
+            int i = 0;
+            while (i < n) {
+                int id = random.nextInt();
+                if (used.add(id)) {
+                    keys[i] = new BenchKey(id, id);
+                    i += 1;
+                }
+            }
+            return keys;
+        }
+    },
+
+    /** Keys 0..N-1 that share only COLLIDING_HASHES distinct hash codes. */
+    COLLIDING {
+        @Override
+        BenchKey[] keys(int n, Random random) {
+            BenchKey[] keys = new BenchKey[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = new BenchKey(i, i % COLLIDING_HASHES);
+            }
+            return keys;
+        }
+    };
+
+    /** Number of distinct hash codes among COLLIDING keys */
+    static final int COLLIDING_HASHES = 64;
+
+    /** Returns n distinct keys in insertion order */
+    abstract BenchKey[] keys(int n, Random random);
+}
@@ -0,0 +1,85 @@
+package bench;
+
+import hashmap.Map61B;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of put, get and iterate for every map implementation.
+ * One operation is a full pass over all `size` keys.
+ * Run with the gc profiler (see RunBenchmarks) to also get allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MapBenchmark {
+
+    @Param({"AL_BUCKETS", "LL_BUCKETS", "TS_BUCKETS", "HS_BUCKETS", "PQ_BUCKETS",
+            "ADAPTIVE_BUCKETS", "OPEN_ADDRESSING", "CONCURRENT", "ULL_MAP", "JAVA_HASH_MAP"})
+    public MapImpl impl;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "COLLIDING"})
+    public KeyDistribution distribution;
+
+    @Param({"0.5", "0.75", "0.9"})
+    public double loadFactor;
+
+    /** Keys in insertion order */
+    private BenchKey[] keys;
+
+    /** The same keys in a shuffled order, so lookups do not follow insertion order */
+    private BenchKey[] lookups;
+
+    /** A map already holding every key, for the read-only benchmarks */
+    private Map61B<BenchKey, Integer> filled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(61);
+        keys = distribution.keys(size, random);
+
+        List<BenchKey> shuffled = Arrays.asList(keys.clone());
+        Collections.shuffle(shuffled, random);
+        lookups = shuffled.toArray(new BenchKey[0]);
+
+        filled = impl.create(loadFactor);
+        for (int i = 0; i < keys.length; i++) {
+            filled.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public Map61B<BenchKey, Integer> put() {
+        Map61B<BenchKey, Integer> map = impl.create(loadFactor);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void get(Blackhole bh) {
+        for (BenchKey key : lookups) {
+            bh.consume(filled.get(key));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for (BenchKey key : filled) {
+            bh.consume(key);
+        }
+    }
+}
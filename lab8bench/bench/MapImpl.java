@@ -0,0 +1,83 @@
+package bench;
+
+import hashmap.Map61B;
+import hashmap.MyConcurrentHashMap;
+import hashmap.MyHashMapALBuckets;
+import hashmap.MyHashMapAdaptiveBuckets;
+import hashmap.MyHashMapHSBuckets;
+import hashmap.MyHashMapLLBuckets;
+import hashmap.MyHashMapOpenAddressing;
+import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapTSBuckets;
+import hashmap.ULLMap;
+
+/** The map implementations under test, selectable by name from a JMH @Param. */
+public enum MapImpl {
+    AL_BUCKETS {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyHashMapALBuckets<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    LL_BUCKETS {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyHashMapLLBuckets<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    TS_BUCKETS {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyHashMapTSBuckets<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    HS_BUCKETS {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyHashMapHSBuckets<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    PQ_BUCKETS {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyHashMapPQBuckets<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    ADAPTIVE_BUCKETS {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyHashMapAdaptiveBuckets<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    OPEN_ADDRESSING {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyHashMapOpenAddressing<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    CONCURRENT {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new MyConcurrentHashMap<>(INITIAL_SIZE, loadFactor);
+        }
+    },
+    /** Ignores the load factor. Does not support remove. */
+    ULL_MAP {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new ULLMap<>();
+        }
+    },
+    JAVA_HASH_MAP {
+        @Override
+        Map61B<BenchKey, Integer> create(double loadFactor) {
+            return new JavaHashMap<>(INITIAL_SIZE, loadFactor);
+        }
+    };
+
+    /** Every map starts at the same size so resizing is part of what is measured */
+    static final int INITIAL_SIZE = 16;
+
+    /** Returns a new empty map with the given maximum load factor */
+    abstract Map61B<BenchKey, Integer> create(double loadFactor);
+}
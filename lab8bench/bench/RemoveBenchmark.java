@@ -0,0 +1,67 @@
+package bench;
+
+import hashmap.Map61B;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of removing every key from a full map. The map is refilled
+ * before each invocation, outside the measured time.
+ * ULLMap is left out since it does not support remove.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RemoveBenchmark {
+
+    @Param({"AL_BUCKETS", "LL_BUCKETS", "TS_BUCKETS", "HS_BUCKETS", "PQ_BUCKETS",
+            "ADAPTIVE_BUCKETS", "OPEN_ADDRESSING", "CONCURRENT", "JAVA_HASH_MAP"})
+    public MapImpl impl;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "COLLIDING"})
+    public KeyDistribution distribution;
+
+    @Param({"0.5", "0.75", "0.9"})
+    public double loadFactor;
+
+    private BenchKey[] keys;
+    private BenchKey[] removals;
+    private Map61B<BenchKey, Integer> map;
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        Random random = new Random(61);
+        keys = distribution.keys(size, random);
+
+        List<BenchKey> shuffled = Arrays.asList(keys.clone());
+        Collections.shuffle(shuffled, random);
+        removals = shuffled.toArray(new BenchKey[0]);
+    }
+
+    @Setup(Level.Invocation)
+    public void fill() {
+        map = impl.create(loadFactor);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public void remove(Blackhole bh) {
+        for (BenchKey key : removals) {
+            bh.consume(map.remove(key));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the map benchmarks with the gc profiler attached, so every result
+ * comes with its allocation rate (gc.alloc.rate and gc.alloc.rate.norm).
+ * Accepts the usual JMH command line, e.g. to narrow the run:
+ *     java -cp target/benchmarks.jar bench.RunBenchmarks MapBenchmark.get -p size=1000
+ */
+public class RunBenchmarks {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("bench\\..*Benchmark");
+        }
+        new Runner(options.build()).run();
+    }
+}
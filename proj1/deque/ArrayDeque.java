@@ -1,17 +1,81 @@
 package deque;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A deque backed by a circular array.
+ *
+ * The array length is always a power of two, so wrapping an index around
+ * the end of the array is a bit mask rather than a % or a branch. Resizing
+ * copies the items in at most two System.arraycopy calls, one for each
+ * side of the wrap-around point.
+ *
+ * The array doubles when it fills up and is halved when a ShrinkPolicy
+ * says it has become sparse. The policy only shrinks well below half
+ * full, so a deque whose size hovers around a resize boundary does not
+ * keep growing and shrinking.
+ */
+public class ArrayDeque<T> implements Deque<T>, Iterable<T>, MemoryFootprint {
+
+    /**
+     * When to halve the array after removals: once fewer than
+     * 1/divisor of its slots are used, but never below minCapacity slots.
+     * After a shrink the array is 2/divisor full, so a divisor of at least 3
+     * leaves room to add and remove items on either side of the boundary
+     * before the next resize.
+     */
+    public static final class ShrinkPolicy {
+        /** Shrink below a quarter full, down to 8 slots */
+        public static final ShrinkPolicy DEFAULT = new ShrinkPolicy(4, 8);
+        /** Never shrink: the array stays as large as it has ever been */
+        public static final ShrinkPolicy NEVER = new ShrinkPolicy(0, Integer.MAX_VALUE);
+
+        private final int divisor;
+        private final int minCapacity;
+
+        private ShrinkPolicy(int divisor, int minCapacity) {
+            this.divisor = divisor;
+            this.minCapacity = minCapacity;
+        }
+
+        /** Returns a policy that shrinks below 1/divisor full, keeping at least minCapacity slots */
+        public static ShrinkPolicy below(int divisor, int minCapacity) {
+            if (divisor < 3) {
+                throw new IllegalArgumentException("divisor must be at least 3, or the array would thrash");
+            }
+            if (minCapacity < 1) {
+                throw new IllegalArgumentException("minCapacity must be positive");
+            }
+            return new ShrinkPolicy(divisor, minCapacity);
+        }
+
+        /** Returns true if an array of length slots holding size items should be halved */
+        boolean shouldShrink(int size, int length) {
+            return divisor != 0 && length / 2 >= minCapacity && size < length / divisor;
+        }
+    }
 
-public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
+    private final ShrinkPolicy shrinkPolicy;
 
     private T[] array;
     private int size;
     private int nextFirst;
     private int nextLast;
 
-
     /** Constructor to make an empty list */
     public ArrayDeque() {
+        this(ShrinkPolicy.DEFAULT);
+    }
+
+    /** Constructor to make an empty list that shrinks its array according to shrinkPolicy */
+    public ArrayDeque(ShrinkPolicy shrinkPolicy) {
+        this.shrinkPolicy = shrinkPolicy;
         array = (T []) new Object[8];
         size = 0;
         nextLast = 0;
@@ -22,7 +86,7 @@ public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
     @Override
     public void addFirst(T item) {
         array[nextFirst] = item;
-        decrementFirstIndex();
+        nextFirst = (nextFirst - 1) & (array.length - 1);
         size++;
 
         if (size == array.length) {
@@ -34,7 +98,7 @@ public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
     @Override
     public void addLast(T item) {
         array[nextLast] = item;
-        incrementLastIndex();
+        nextLast = (nextLast + 1) & (array.length - 1);
         size++;
 
         if (size == array.length) {
@@ -67,10 +131,11 @@ public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
         }
 
         size--;
-        incrementFirstIndex();
+        nextFirst = (nextFirst + 1) & (array.length - 1);
         T item = array[nextFirst];
+        array[nextFirst] = null;
 
-        if ((size < array.length / 3)) {
+        if (shrinkPolicy.shouldShrink(size, array.length)) {
             resize(array.length / 2);
         }
 
@@ -86,10 +151,11 @@ public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
         }
 
         size--;
-        decrementLastIndex();
+        nextLast = (nextLast - 1) & (array.length - 1);
         T item = array[nextLast];
+        array[nextLast] = null;
 
-        if ((size < array.length / 3)) {
+        if (shrinkPolicy.shouldShrink(size, array.length)) {
             resize(array.length / 2);
         }
 
@@ -104,13 +170,125 @@ public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
      * If no such item exists, returns null. Must not alter the deque! */
     @Override
     public T get(int index) {
-        if (isEmpty() || index >= size) {
+        if (index < 0 || index >= size) {
             return null;
         }
 
         return array[adjustedIndex(index)];
     }
 
+    /** Adds every item of items to the back of the deque with at most one resize and two array copies. */
+    @Override
+    public void addAllLast(T[] items) {
+        ensureCapacity(size + items.length);
+        copyIn(items, 0, items.length);
+    }
+
+    /**
+     * Adds every item of other to the back of the deque. When other is also
+     * an ArrayDeque its items are copied a segment at a time, straight from
+     * its array. other may be this deque, which then ends up twice as long.
+     */
+    @Override
+    public void addAllLast(Deque<? extends T> other) {
+        int n = other.size();
+        ensureCapacity(size + n);
+        if (!(other instanceof ArrayDeque)) {
+            Iterator<? extends T> iter = other.iterator();
+            for (int i = 0; i < n; i++) {
+                array[nextLast] = iter.next();
+                nextLast = (nextLast + 1) & (array.length - 1);
+            }
+            size += n;
+            return;
+        }
+        ArrayDeque<? extends T> o = (ArrayDeque<? extends T>) other;
+        Object[] src = o.array;
+        int start = (o.nextFirst + 1) & (src.length - 1);
+        int firstPart = Math.min(n, src.length - start);
+        copyIn(src, start, firstPart);
+        copyIn(src, 0, n - firstPart);
+    }
+
+    /** Removes up to n items from the front of the deque, resizing at most once at the end. */
+    @Override
+    public int drainFirst(int n, Consumer<? super T> action) {
+        int count = Math.max(0, Math.min(n, size));
+        for (int i = 0; i < count; i++) {
+            nextFirst = (nextFirst + 1) & (array.length - 1);
+            T item = array[nextFirst];
+            array[nextFirst] = null;
+            size--;
+            action.accept(item);
+        }
+        shrinkIfSparse();
+        return count;
+    }
+
+    /** Removes up to n items from the front of the deque into dest with at most two array copies. */
+    @Override
+    public int drainFirst(int n, T[] dest) {
+        int count = Math.max(0, Math.min(Math.min(n, size), dest.length));
+        int start = (nextFirst + 1) & (array.length - 1);
+        int firstPart = Math.min(count, array.length - start);
+        System.arraycopy(array, start, dest, 0, firstPart);
+        System.arraycopy(array, 0, dest, firstPart, count - firstPart);
+        Arrays.fill(array, start, start + firstPart, null);
+        Arrays.fill(array, 0, count - firstPart, null);
+        nextFirst = (nextFirst + count) & (array.length - 1);
+        size -= count;
+        shrinkIfSparse();
+        return count;
+    }
+
+    /**
+     * Moves every item to the back of other, copying arrays if other is an ArrayDeque, and empties this deque.
+     * The emptied array is then shrunk as far as the shrink policy allows.
+     */
+    @Override
+    public void transferTo(Deque<T> other) {
+        if (other == this) {
+            return;
+        }
+        other.addAllLast(this);
+        int start = (nextFirst + 1) & (array.length - 1);
+        int firstPart = Math.min(size, array.length - start);
+        Arrays.fill(array, start, start + firstPart, null);
+        Arrays.fill(array, 0, size - firstPart, null);
+        size = 0;
+        nextLast = 0;
+        nextFirst = array.length - 1;
+        shrinkIfSparse();
+    }
+
+    /**
+     * Shrinks the array to the smallest power of two that holds the items
+     * with a slot to spare, regardless of the shrink policy.
+     */
+    public void trimToSize() {
+        int capacity = 2;
+        while (capacity <= size) {
+            capacity <<= 1;
+        }
+        if (capacity < array.length) {
+            resize(capacity);
+        }
+    }
+
+    /** Returns the number of slots in the array */
+    @Override
+    public int capacity() {
+        return array.length;
+    }
+
+    /** Returns the estimated bytes used by this object and its array */
+    @Override
+    public long footprint() {
+        // header, the array reference, size, nextFirst, nextLast and the policy reference
+        long self = MemoryFootprint.align(OBJECT_HEADER + REFERENCE + 3 * Integer.BYTES + REFERENCE);
+        return self + MemoryFootprint.referenceArray(array.length);
+    }
+
     /** The Deque objects we’ll make are iterable (i.e. Iterable<T>)
      * so we must provide this method to return an iterator. */
     @Override
@@ -118,25 +296,106 @@ public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
         return new ADequeIterator();
     }
 
+    /** Walks the array directly from the front, rather than going through get */
     private class ADequeIterator implements Iterator<T> {
-        private int pos;
+        private int index;
+        private int remaining;
 
         ADequeIterator() {
-            pos = 0;
+            index = (nextFirst + 1) & (array.length - 1);
+            remaining = size;
         }
+
         @Override
         public boolean hasNext() {
-            return pos < size;
+            return remaining > 0;
         }
 
         @Override
         public T next() {
-            T item = get(pos);
-            pos += 1;
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            T item = array[index];
+            index = (index + 1) & (array.length - 1);
+            remaining -= 1;
             return item;
         }
     }
 
+    /**
+     * Returns a Spliterator over the items from front to back. It splits
+     * by halving its range of the array, so parallel streams get balanced
+     * chunks without copying anything.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ADequeSpliterator(0, size);
+    }
+
+    /** Returns a sequential Stream over the items from front to back */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /** Returns a parallel Stream over the items */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /** Covers the items at positions [pos, end) counting from the front of the deque */
+    private class ADequeSpliterator implements Spliterator<T> {
+        private int pos;
+        private final int end;
+
+        ADequeSpliterator(int pos, int end) {
+            this.pos = pos;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (pos >= end) {
+                return false;
+            }
+            action.accept(array[adjustedIndex(pos)]);
+            pos += 1;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            T[] a = array;
+            int mask = a.length - 1;
+            int start = nextFirst + 1;
+            for (int i = pos; i < end; i++) {
+                action.accept(a[(start + i) & mask]);
+            }
+            pos = end;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int mid = (pos + end) >>> 1;
+            if (mid <= pos) {
+                return null;
+            }
+            Spliterator<T> prefix = new ADequeSpliterator(pos, mid);
+            pos = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - pos;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
     /** Returns whether the parameter o is equal to the Deque.
      * o is considered equal if it is a Deque and if it contains the same contents
      * (as governed by the generic T’s equals method) in the same order.
@@ -168,54 +427,50 @@ public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
         return true;
     }
 
-    /** Increments the index of nextLast and accounts for looping to the other side of the array*/
-    private void incrementLastIndex() {
-        if (nextLast == array.length - 1) {
-            nextLast = 0;
-        } else {
-            nextLast++;
-        }
+    /** Returns the index that represents the nth index in the circular array*/
+    private int adjustedIndex(int n) {
+        return (nextFirst + 1 + n) & (array.length - 1);
     }
 
-    /** Decrements the index of nextLast and accounts for looping to the other side of the array*/
-    private void decrementLastIndex() {
-        if (nextLast == 0) {
-            nextLast = array.length - 1;
-        } else {
-            nextLast--;
-        }
+    /** Copies count items of src, starting at srcPos, to the back of the deque. There must be room for them. */
+    private void copyIn(Object[] src, int srcPos, int count) {
+        int firstPart = Math.min(count, array.length - nextLast);
+        System.arraycopy(src, srcPos, array, nextLast, firstPart);
+        System.arraycopy(src, srcPos + firstPart, array, 0, count - firstPart);
+        nextLast = (nextLast + count) & (array.length - 1);
+        size += count;
     }
 
-    /** Increments the index of nextFirst and accounts for looping to the other side of the array*/
-    private void incrementFirstIndex() {
-        if (nextFirst == array.length - 1) {
-            nextFirst = 0;
-        } else {
-            nextFirst++;
+    /** Grows the array, once, so that it can hold needed items and still have a free slot */
+    private void ensureCapacity(int needed) {
+        if (needed < array.length) {
+            return;
         }
-    }
-
-    /** Decrements the index of nextFirst and accounts for looping to the other side of the array*/
-    private void decrementFirstIndex() {
-        if (nextFirst == 0) {
-            nextFirst = array.length - 1;
-        } else {
-            nextFirst--;
+        int capacity = array.length;
+        while (capacity <= needed) {
+            capacity <<= 1;
         }
+        resize(capacity);
     }
 
-    /** Returns the index that represents the nth index in the circular array*/
-    private int adjustedIndex(int n) {
-        int start = nextFirst + 1;
-        return (start + n) % array.length;
+    /** Halves the array as many times as the single-item removes would have, in one resize */
+    private void shrinkIfSparse() {
+        int capacity = array.length;
+        while (shrinkPolicy.shouldShrink(size, capacity)) {
+            capacity /= 2;
+        }
+        if (capacity != array.length) {
+            resize(capacity);
+        }
     }
 
-    /** Resizes the array to capacity and adjusts the nextFirst and nextLast*/
+    /** Resizes the array to capacity, a power of two, and moves the items to the front */
     private void resize(int capacity) {
         T[] a = (T[]) new Object[capacity];
-        for (int i = 0; i < size; i += 1) {
-            a[i] = array[adjustedIndex(i)];
-        }
+        int start = (nextFirst + 1) & (array.length - 1);
+        int firstPart = Math.min(size, array.length - start);
+        System.arraycopy(array, start, a, 0, firstPart);
+        System.arraycopy(array, 0, a, firstPart, size - firstPart);
         nextLast = size;
         nextFirst = a.length - 1;
         array = a;
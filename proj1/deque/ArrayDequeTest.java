@@ -263,4 +263,50 @@ public class ArrayDequeTest {
             assertEquals("Iterator next item", (Integer) i, iter.next());
         }
     }
+
+    @Test
+    /* Iterates a deque whose items wrap around the end of the array, across a resize. */
+    public void iteratorWrapAroundTest() {
+        ArrayDeque<Integer> ad = new ArrayDeque<Integer>();
+        for (int i = 0; i < 5; i++) {
+            ad.addFirst(-i - 1);
+            ad.addLast(i);
+        }
+        for (int i = 5; i < 40; i++) {
+            ad.addLast(i);
+        }
+
+        int expected = -5;
+        for (int item : ad) {
+            assertEquals(expected, item);
+            expected += 1;
+        }
+        assertEquals(40, expected);
+        assertNull("negative index", ad.get(-1));
+    }
+
+    @Test
+    /* Sums a deque that wraps around the array through sequential and parallel streams. */
+    public void spliteratorTest() {
+        ArrayDeque<Integer> ad = new ArrayDeque<Integer>();
+        long expected = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (i % 2 == 0) {
+                ad.addFirst(i);
+            } else {
+                ad.addLast(i);
+            }
+            expected += i;
+        }
+
+        assertEquals(10000, ad.spliterator().estimateSize());
+        assertEquals(expected, ad.stream().mapToLong(Integer::longValue).sum());
+        assertEquals(expected, ad.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(ad.get(0), ad.parallelStream().findFirst().get());
+
+        Object[] inOrder = ad.parallelStream().toArray();
+        for (int i = 0; i < inOrder.length; i++) {
+            assertEquals(ad.get(i), inOrder[i]);
+        }
+    }
 }
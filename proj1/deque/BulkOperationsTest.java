@@ -0,0 +1,156 @@
+package deque;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/** Tests of addAllLast, drainFirst and transferTo on every kind of deque, native and default. */
+public class BulkOperationsTest {
+
+    private static final List<Supplier<Deque<Integer>>> DEQUES = List.of(
+            ArrayDeque::new,
+            LinkedListDeque::new,
+            UnrolledLinkedListDeque::new,
+            () -> new MaxArrayDeque<>(Comparator.<Integer>naturalOrder(), MaxArrayDeque.Tracking.BOTH));
+
+    /** Fills a deque with from..to-1, with some of the items added at the front so arrays wrap */
+    private static Deque<Integer> filled(Supplier<Deque<Integer>> factory, int from, int to) {
+        Deque<Integer> d = factory.get();
+        int mid = (from + to) / 2;
+        for (int i = mid; i < to; i++) {
+            d.addLast(i);
+        }
+        for (int i = mid - 1; i >= from; i--) {
+            d.addFirst(i);
+        }
+        return d;
+    }
+
+    private static void assertContents(String message, Deque<Integer> d, int from, int to) {
+        assertEquals(message + ": size", to - from, d.size());
+        for (int i = from; i < to; i++) {
+            assertEquals(message + ": index " + (i - from), (Integer) i, d.get(i - from));
+        }
+    }
+
+    @Test
+    public void addAllLastArrayTest() {
+        for (Supplier<Deque<Integer>> factory : DEQUES) {
+            Deque<Integer> d = filled(factory, 0, 5);
+            Integer[] items = new Integer[100];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = i + 5;
+            }
+            d.addAllLast(items);
+            d.addAllLast(new Integer[0]);
+            assertContents(d.getClass().getSimpleName(), d, 0, 105);
+        }
+    }
+
+    @Test
+    public void addAllLastDequeTest() {
+        for (Supplier<Deque<Integer>> to : DEQUES) {
+            for (Supplier<Deque<Integer>> from : DEQUES) {
+                Deque<Integer> d = filled(to, 0, 7);
+                Deque<Integer> other = filled(from, 7, 300);
+                d.addAllLast(other);
+                String message = d.getClass().getSimpleName() + " <- " + other.getClass().getSimpleName();
+                assertContents(message, d, 0, 300);
+                assertContents(message + " (source)", other, 7, 300);
+            }
+        }
+    }
+
+    @Test
+    public void addAllLastSelfTest() {
+        for (Supplier<Deque<Integer>> factory : DEQUES) {
+            Deque<Integer> d = filled(factory, 0, 6);
+            d.addAllLast(d);
+            assertEquals(12, d.size());
+            for (int i = 0; i < 12; i++) {
+                assertEquals((Integer) (i % 6), d.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void drainFirstTest() {
+        for (Supplier<Deque<Integer>> factory : DEQUES) {
+            String name = factory.get().getClass().getSimpleName();
+            Deque<Integer> d = filled(factory, 0, 1000);
+
+            List<Integer> seen = new ArrayList<>();
+            assertEquals(300, d.drainFirst(300, seen::add));
+            for (int i = 0; i < 300; i++) {
+                assertEquals((Integer) i, seen.get(i));
+            }
+            assertContents(name + " after consumer drain", d, 300, 1000);
+
+            Integer[] dest = new Integer[500];
+            assertEquals(500, d.drainFirst(1000, dest));
+            for (int i = 0; i < 500; i++) {
+                assertEquals((Integer) (i + 300), dest[i]);
+            }
+            assertContents(name + " after array drain", d, 800, 1000);
+
+            assertEquals(200, d.drainFirst(Integer.MAX_VALUE, seen::add));
+            assertTrue(d.isEmpty());
+            assertEquals(0, d.drainFirst(10, new Integer[10]));
+            d.addLast(1);
+            assertEquals((Integer) 1, d.get(0));
+        }
+    }
+
+    @Test
+    public void drainFirstNegativeCountTest() {
+        for (Supplier<Deque<Integer>> factory : DEQUES) {
+            Deque<Integer> d = filled(factory, 0, 20);
+            String message = d.getClass().getSimpleName();
+            assertEquals(message, 0, d.drainFirst(-1, new Integer[5]));
+            assertEquals(message, 0, d.drainFirst(-1, x -> fail("nothing should be drained")));
+            assertContents(message, d, 0, 20);
+        }
+    }
+
+    @Test
+    public void transferToTest() {
+        for (Supplier<Deque<Integer>> to : DEQUES) {
+            for (Supplier<Deque<Integer>> from : DEQUES) {
+                Deque<Integer> d = filled(to, 0, 50);
+                Deque<Integer> other = filled(from, 50, 200);
+                other.transferTo(d);
+                String message = d.getClass().getSimpleName() + " <- " + other.getClass().getSimpleName();
+                assertContents(message, d, 0, 200);
+                assertTrue(message + " (source)", other.isEmpty());
+
+                other.addLast(7);
+                assertEquals((Integer) 7, other.get(0));
+                assertEquals(1, other.size());
+            }
+        }
+    }
+
+    @Test
+    /** Bulk operations keep the tracked extremes of a MaxArrayDeque right */
+    public void maxArrayDequeTrackingTest() {
+        MaxArrayDeque<Integer> d = new MaxArrayDeque<>(Comparator.<Integer>naturalOrder(), MaxArrayDeque.Tracking.BOTH);
+        d.addAllLast(new Integer[] {5, 1, 9, 3, 7});
+        assertEquals((Integer) 9, d.max());
+        assertEquals((Integer) 1, d.min());
+        d.drainFirst(3, x -> { });
+        assertEquals((Integer) 7, d.max());
+        assertEquals((Integer) 3, d.min());
+
+        ArrayDeque<Integer> other = new ArrayDeque<>();
+        d.transferTo(other);
+        assertNull(d.max());
+        d.addLast(4);
+        assertEquals((Integer) 4, d.max());
+        assertEquals((Integer) 4, d.min());
+    }
+}
@@ -1,6 +1,7 @@
 package deque;
 
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 public interface Deque<T> {
     void addFirst(T x);
@@ -16,4 +17,55 @@ public interface Deque<T> {
     default boolean isEmpty() {
         return size() == 0;
     }
+
+    /** Adds every item of items to the back of the deque, in order. */
+    default void addAllLast(T[] items) {
+        for (T item : items) {
+            addLast(item);
+        }
+    }
+
+    /** Adds every item of other to the back of the deque, front to back. other is unchanged. */
+    default void addAllLast(Deque<? extends T> other) {
+        int n = other.size();
+        Iterator<? extends T> iter = other.iterator();
+        for (int i = 0; i < n; i++) {
+            addLast(iter.next());
+        }
+    }
+
+    /**
+     * Removes up to n items from the front of the deque and hands them to
+     * action in order. Returns the number of items removed, 0 if n is negative.
+     */
+    default int drainFirst(int n, Consumer<? super T> action) {
+        int count = Math.max(0, Math.min(n, size()));
+        for (int i = 0; i < count; i++) {
+            action.accept(removeFirst());
+        }
+        return count;
+    }
+
+    /**
+     * Removes up to n items from the front of the deque into dest, starting
+     * at dest[0], without going past the end of dest. Returns the number of
+     * items removed, 0 if n is negative.
+     */
+    default int drainFirst(int n, T[] dest) {
+        int count = Math.max(0, Math.min(Math.min(n, size()), dest.length));
+        for (int i = 0; i < count; i++) {
+            dest[i] = removeFirst();
+        }
+        return count;
+    }
+
+    /** Moves every item of this deque to the back of other, in order, leaving this deque empty. */
+    default void transferTo(Deque<T> other) {
+        if (other == this) {
+            return;
+        }
+        while (!isEmpty()) {
+            other.addLast(removeFirst());
+        }
+    }
 }
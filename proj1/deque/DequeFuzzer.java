@@ -0,0 +1,304 @@
+package deque;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A differential fuzzer for Deque implementations.
+ *
+ * It generates random sequences of deque calls, runs each one against a
+ * fresh deque from the factory and against a simple reference model, and
+ * compares every result. When they disagree (or the deque throws) it
+ * shrinks the sequence, dropping calls and simplifying arguments for as
+ * long as the failure still happens, and reports the smallest sequence it
+ * found as Java statements that can be pasted into a test.
+ *
+ * fuzz() runs many independent campaigns, each from its own seed, spread
+ * over several threads. Each campaign has its own deque, so this tests
+ * the sequential contract of thread-safe deques too. Deques that only
+ * support some operations (WorkStealingDeque has no addFirst) can restrict
+ * the generated calls with ops().
+ */
+public class DequeFuzzer {
+
+    /** The calls the fuzzer can make */
+    public enum Op {
+        ADD_FIRST, ADD_LAST, REMOVE_FIRST, REMOVE_LAST, GET, SIZE, IS_EMPTY, ITERATE
+    }
+
+    /** One call in a sequence, with its argument for the calls that take one */
+    public static final class Step {
+        final Op op;
+        final int arg;
+
+        Step(Op op, int arg) {
+            this.op = op;
+            this.arg = arg;
+        }
+
+        /** Returns the call as a Java statement on a deque named d */
+        @Override
+        public String toString() {
+            switch (op) {
+                case ADD_FIRST:
+                    return "d.addFirst(" + arg + ");";
+                case ADD_LAST:
+                    return "d.addLast(" + arg + ");";
+                case REMOVE_FIRST:
+                    return "d.removeFirst();";
+                case REMOVE_LAST:
+                    return "d.removeLast();";
+                case GET:
+                    return "d.get(" + arg + ");";
+                case SIZE:
+                    return "d.size();";
+                case IS_EMPTY:
+                    return "d.isEmpty();";
+                default:
+                    return "for (Integer x : d) { }";
+            }
+        }
+    }
+
+    /** A sequence of calls on which the deque and the model disagree, and how */
+    public static final class Failure {
+        private final List<Step> steps;
+        private final String message;
+
+        Failure(List<Step> steps, String message) {
+            this.steps = steps;
+            this.message = message;
+        }
+
+        /** Returns the calls, the last of which is the one that went wrong */
+        public List<Step> steps() {
+            return steps;
+        }
+
+        public String message() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(message).append('\n');
+            for (Step step : steps) {
+                sb.append("    ").append(step).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Supplier<? extends Deque<Integer>> factory;
+    private Set<Op> ops = EnumSet.allOf(Op.class);
+    private int maxSize = 1000;
+    private int maxValue = 100;
+
+    /** Creates a fuzzer for the deques made by factory, which must return a new, empty deque each time */
+    public DequeFuzzer(Supplier<? extends Deque<Integer>> factory) {
+        this.factory = factory;
+    }
+
+    /** Only generates the given calls. Returns this fuzzer. */
+    public DequeFuzzer ops(Set<Op> allowed) {
+        if (allowed.isEmpty()) {
+            throw new IllegalArgumentException("no operations to generate");
+        }
+        ops = EnumSet.copyOf(allowed);
+        return this;
+    }
+
+    /** Stops generating adds once the deque holds maxSize items. Returns this fuzzer. */
+    public DequeFuzzer maxSize(int max) {
+        maxSize = max;
+        return this;
+    }
+
+    /* ---------------------- Generating ---------------------- */
+
+    /** Returns a random sequence of length calls, the same one for the same seed */
+    public List<Step> generate(long seed, int length) {
+        Random random = new Random(seed);
+        Op[] choices = ops.toArray(new Op[0]);
+        List<Step> steps = new ArrayList<>(length);
+        int size = 0;
+        while (steps.size() < length) {
+            Op op = choices[random.nextInt(choices.length)];
+            boolean adding = op == Op.ADD_FIRST || op == Op.ADD_LAST;
+            if (adding && size >= maxSize) {
+                continue;
+            }
+            int arg = 0;
+            if (adding) {
+                arg = random.nextInt(maxValue);
+                size++;
+            } else if (op == Op.GET) {
+                // mostly valid indices, sometimes just past either end
+                arg = random.nextInt(size + 2) - 1;
+            } else if ((op == Op.REMOVE_FIRST || op == Op.REMOVE_LAST) && size > 0) {
+                size--;
+            }
+            steps.add(new Step(op, arg));
+        }
+        return steps;
+    }
+
+    /* ---------------------- Checking ---------------------- */
+
+    /**
+     * Runs steps on a new deque and on the model. Returns null if every
+     * result matched, or the failure with the steps up to the first mismatch.
+     */
+    public Failure check(List<Step> steps) {
+        Deque<Integer> deque = factory.get();
+        // The model: an ArrayList is slow at the front but simple enough to trust
+        List<Integer> model = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            String mismatch;
+            try {
+                mismatch = apply(steps.get(i), deque, model);
+            } catch (RuntimeException | AssertionError e) {
+                mismatch = "threw " + e;
+            }
+            if (mismatch != null) {
+                return new Failure(new ArrayList<>(steps.subList(0, i + 1)), mismatch);
+            }
+        }
+        return null;
+    }
+
+    /** Applies step to both and returns a description of how they differ, or null */
+    private static String apply(Step step, Deque<Integer> deque, List<Integer> model) {
+        switch (step.op) {
+            case ADD_FIRST:
+                deque.addFirst(step.arg);
+                model.add(0, step.arg);
+                return null;
+            case ADD_LAST:
+                deque.addLast(step.arg);
+                model.add(step.arg);
+                return null;
+            case REMOVE_FIRST:
+                return compare("removeFirst()", model.isEmpty() ? null : model.remove(0), deque.removeFirst());
+            case REMOVE_LAST:
+                return compare("removeLast()", model.isEmpty() ? null : model.remove(model.size() - 1),
+                        deque.removeLast());
+            case GET:
+                Integer expected = step.arg >= 0 && step.arg < model.size() ? model.get(step.arg) : null;
+                return compare("get(" + step.arg + ")", expected, deque.get(step.arg));
+            case SIZE:
+                return compare("size()", model.size(), deque.size());
+            case IS_EMPTY:
+                return compare("isEmpty()", model.isEmpty(), deque.isEmpty());
+            default:
+                List<Integer> items = new ArrayList<>();
+                Iterator<Integer> iter = deque.iterator();
+                while (iter.hasNext() && items.size() <= model.size()) {
+                    items.add(iter.next());
+                }
+                return compare("iteration", model, items);
+        }
+    }
+
+    private static String compare(String call, Object expected, Object actual) {
+        if (Objects.equals(expected, actual)) {
+            return null;
+        }
+        return call + ": expected " + expected + " but was " + actual;
+    }
+
+    /* ---------------------- Shrinking ---------------------- */
+
+    /**
+     * Returns a smaller failure than failure, or failure itself if nothing
+     * smaller could be found. First removes ever smaller runs of calls,
+     * then sets the arguments of the remaining calls to 0 where it can.
+     */
+    public Failure shrink(Failure failure) {
+        Failure best = failure;
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (int chunk = best.steps.size() / 2; chunk >= 1; chunk /= 2) {
+                int start = 0;
+                while (start < best.steps.size()) {
+                    List<Step> candidate = new ArrayList<>(best.steps);
+                    candidate.subList(start, Math.min(start + chunk, candidate.size())).clear();
+                    Failure smaller = candidate.isEmpty() ? null : check(candidate);
+                    if (smaller != null) {
+                        best = smaller;
+                        progress = true;
+                    } else {
+                        start += chunk;
+                    }
+                }
+            }
+            for (int i = 0; i < best.steps.size(); i++) {
+                Step step = best.steps.get(i);
+                if (step.arg != 0) {
+                    List<Step> candidate = new ArrayList<>(best.steps);
+                    candidate.set(i, new Step(step.op, 0));
+                    Failure simpler = check(candidate);
+                    if (simpler != null) {
+                        best = simpler;
+                        progress = true;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /* ---------------------- Campaigns ---------------------- */
+
+    /** Generates and checks one sequence, returning its shrunk failure or null */
+    public Failure fuzz(long seed, int length) {
+        Failure failure = check(generate(seed, length));
+        return failure == null ? null : shrink(failure);
+    }
+
+    /**
+     * Runs campaigns sequences of length calls, seeded 0 to campaigns - 1,
+     * on threads threads. Returns the shortest shrunk failure, or null if
+     * the deque matched the model on every call.
+     */
+    public Failure fuzz(int campaigns, int length, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Failure>> results = new ArrayList<>();
+            for (int seed = 0; seed < campaigns; seed++) {
+                long campaignSeed = seed;
+                results.add(pool.submit(() -> fuzz(campaignSeed, length)));
+            }
+            List<Failure> failures = new ArrayList<>();
+            for (Future<Failure> result : results) {
+                Failure failure = result.get();
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            }
+            if (failures.isEmpty()) {
+                return null;
+            }
+            return Collections.min(failures, (a, b) -> Integer.compare(a.steps.size(), b.steps.size()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while fuzzing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("fuzzing campaign crashed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package deque;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/** Runs the differential fuzzer over every deque in the package, and checks that it shrinks failures. */
+public class DequeFuzzerTest {
+
+    private static final int CAMPAIGNS = 40;
+    private static final int LENGTH = 5000;
+    private static final int THREADS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertNoFailure(DequeFuzzer fuzzer) {
+        DequeFuzzer.Failure failure = fuzzer.fuzz(CAMPAIGNS, LENGTH, THREADS);
+        assertNull(String.valueOf(failure), failure);
+    }
+
+    @Test
+    public void arrayDequeTest() {
+        assertNoFailure(new DequeFuzzer(ArrayDeque::new));
+        assertNoFailure(new DequeFuzzer(() -> new ArrayDeque<>(ArrayDeque.ShrinkPolicy.below(3, 1))).maxSize(40));
+    }
+
+    @Test
+    public void linkedDequesTest() {
+        assertNoFailure(new DequeFuzzer(LinkedListDeque::new).maxSize(200));
+        assertNoFailure(new DequeFuzzer(UnrolledLinkedListDeque::new).maxSize(300));
+    }
+
+    @Test
+    public void maxArrayDequeTest() {
+        assertNoFailure(new DequeFuzzer(() -> new MaxArrayDeque<Integer>(Integer::compare, MaxArrayDeque.Tracking.BOTH)));
+    }
+
+    @Test
+    public void workStealingDequeTest() {
+        EnumSet<DequeFuzzer.Op> ops = EnumSet.allOf(DequeFuzzer.Op.class);
+        ops.remove(DequeFuzzer.Op.ADD_FIRST);
+        assertNoFailure(new DequeFuzzer(() -> new WorkStealingDeque<Integer>(2)).ops(ops));
+    }
+
+    @Test
+    public void doubleArrayDequeTest() {
+        assertNoFailure(new DequeFuzzer(DoubleDequeAdapter::new));
+    }
+
+    @Test
+    public void mappedFileDequeTest() throws IOException {
+        DequeFuzzer fuzzer = new DequeFuzzer(() -> {
+            try {
+                return new MappedIntegerDeque(MappedFileDeque.open(
+                        folder.newFile().toPath(), 4096, MappedFileDeque.UTF8, 0));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).maxSize(100);
+        DequeFuzzer.Failure failure = fuzzer.fuzz(8, 2000, 2);
+        assertNull(String.valueOf(failure), failure);
+    }
+
+    @Test
+    /* A deque that loses its back item once addLast has made it four long is shrunk to five calls. */
+    public void shrinksToMinimalReproductionTest() {
+        DequeFuzzer fuzzer = new DequeFuzzer(() -> new ArrayDeque<Integer>() {
+            private boolean broken;
+
+            @Override
+            public void addLast(Integer item) {
+                super.addLast(item);
+                broken |= size() >= 4;
+            }
+
+            @Override
+            public Integer removeLast() {
+                Integer item = super.removeLast();
+                return broken ? null : item;
+            }
+        });
+        DequeFuzzer.Failure failure = fuzzer.fuzz(CAMPAIGNS, LENGTH, THREADS);
+        assertNotNull(failure);
+        assertEquals(failure.toString(), 5, failure.steps().size());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(failure.steps().get(i).toString().matches("d.add(First|Last)\\(0\\);"));
+        }
+        assertEquals("d.addLast(0);", failure.steps().get(3).toString());
+        assertEquals("d.removeLast();", failure.steps().get(4).toString());
+    }
+
+    /** Presents a DoubleArrayDeque as a Deque, returning null instead of throwing when empty */
+    private static class DoubleDequeAdapter implements Deque<Integer> {
+        private final DoubleArrayDeque deque = new DoubleArrayDeque();
+
+        public void addFirst(Integer x) {
+            deque.addFirst(x);
+        }
+
+        public void addLast(Integer x) {
+            deque.addLast(x);
+        }
+
+        public int size() {
+            return deque.size();
+        }
+
+        public void printDeque() {
+            deque.printDeque();
+        }
+
+        public Integer removeFirst() {
+            return deque.isEmpty() ? null : (int) deque.removeFirst();
+        }
+
+        public Integer removeLast() {
+            return deque.isEmpty() ? null : (int) deque.removeLast();
+        }
+
+        public Integer get(int i) {
+            return i < 0 || i >= deque.size() ? null : (int) deque.get(i);
+        }
+
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int pos = 0;
+
+                public boolean hasNext() {
+                    return pos < deque.size();
+                }
+
+                public Integer next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    pos += 1;
+                    return (int) deque.get(pos - 1);
+                }
+            };
+        }
+    }
+
+    /** Presents a MappedFileDeque of strings as a deque of integers */
+    private static class MappedIntegerDeque implements Deque<Integer> {
+        private final MappedFileDeque<String> deque;
+
+        MappedIntegerDeque(MappedFileDeque<String> deque) {
+            this.deque = deque;
+        }
+
+        private static Integer parse(String s) {
+            return s == null ? null : Integer.valueOf(s);
+        }
+
+        public void addFirst(Integer x) {
+            deque.addFirst(x.toString());
+        }
+
+        public void addLast(Integer x) {
+            deque.addLast(x.toString());
+        }
+
+        public int size() {
+            return deque.size();
+        }
+
+        public void printDeque() {
+            deque.printDeque();
+        }
+
+        public Integer removeFirst() {
+            return parse(deque.removeFirst());
+        }
+
+        public Integer removeLast() {
+            return parse(deque.removeLast());
+        }
+
+        public Integer get(int i) {
+            return parse(deque.get(i));
+        }
+
+        public Iterator<Integer> iterator() {
+            Iterator<String> iter = deque.iterator();
+            return new Iterator<Integer>() {
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                public Integer next() {
+                    return parse(iter.next());
+                }
+            };
+        }
+    }
+}
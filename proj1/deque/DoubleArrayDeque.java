@@ -0,0 +1,129 @@
+package deque;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A circular array deque of primitive doubles.
+ *
+ * Same nextFirst/nextLast layout as ArrayDeque, but the items are stored
+ * unboxed, so adding, removing and getting never allocate a Double.
+ * The array only ever grows, and its length is kept a power of two so
+ * wrapping around is a mask instead of a branch or a %. Once the deque has
+ * reached its working size it never allocates again.
+ */
+public class DoubleArrayDeque {
+
+    private double[] array;
+    private int size;
+    private int nextFirst;
+    private int nextLast;
+
+    /** Constructor to make an empty deque */
+    public DoubleArrayDeque() {
+        this(8);
+    }
+
+    /**
+     * Constructor to make an empty deque that can hold capacity items
+     * before it has to grow.
+     */
+    public DoubleArrayDeque(int capacity) {
+        int length = 8;
+        while (length <= capacity) {
+            length <<= 1;
+        }
+        array = new double[length];
+        size = 0;
+        nextLast = 0;
+        nextFirst = array.length - 1;
+    }
+
+    /** Adds an item to the front of the deque. */
+    public void addFirst(double item) {
+        array[nextFirst] = item;
+        nextFirst = (nextFirst - 1) & (array.length - 1);
+        size++;
+
+        if (size == array.length) {
+            resize(array.length * 2);
+        }
+    }
+
+    /** Adds an item to the back of the deque. */
+    public void addLast(double item) {
+        array[nextLast] = item;
+        nextLast = (nextLast + 1) & (array.length - 1);
+        size++;
+
+        if (size == array.length) {
+            resize(array.length * 2);
+        }
+    }
+
+    /** Returns the number of items in the deque. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns true if the deque has no items. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Prints the items in the deque from first to last, separated by a space.
+     *  Once all the items have been printed, print out a new line. */
+    public void printDeque() {
+        for (int i = 0; i < size; i += 1) {
+            System.out.print(get(i) + " ");
+        }
+        System.out.println();
+    }
+
+    /** Removes and returns the item at the front of the deque.
+     * Throws NoSuchElementException if the deque is empty, since there is
+     * no null double to return. */
+    public double removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        size--;
+        nextFirst = (nextFirst + 1) & (array.length - 1);
+        return array[nextFirst];
+    }
+
+    /** Removes and returns the item at the back of the deque.
+     * Throws NoSuchElementException if the deque is empty. */
+    public double removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        size--;
+        nextLast = (nextLast - 1) & (array.length - 1);
+        return array[nextLast];
+    }
+
+    /** Gets the item at the given index, where 0 is the front,
+     * 1 is the next item, and so forth.
+     * Throws IndexOutOfBoundsException if no such item exists. */
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+
+        return array[(nextFirst + 1 + index) & (array.length - 1)];
+    }
+
+    /** Resizes the array to capacity, moving the items to the front */
+    private void resize(int capacity) {
+        double[] a = new double[capacity];
+        int start = (nextFirst + 1) & (array.length - 1);
+        int firstPart = Math.min(size, array.length - start);
+        System.arraycopy(array, start, a, 0, firstPart);
+        System.arraycopy(array, 0, a, firstPart, size - firstPart);
+        nextLast = size;
+        nextFirst = a.length - 1;
+        array = a;
+    }
+}
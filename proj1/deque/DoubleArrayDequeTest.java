@@ -0,0 +1,62 @@
+package deque;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/** Performs some basic tests of the primitive double deque. */
+public class DoubleArrayDequeTest {
+
+    @Test
+    public void addRemoveGetTest() {
+        DoubleArrayDeque dad = new DoubleArrayDeque();
+        assertTrue(dad.isEmpty());
+        dad.addLast(1.0);
+        dad.addLast(2.0);
+        dad.addFirst(0.0);
+        assertEquals(3, dad.size());
+        assertEquals(0.0, dad.get(0), 0.0);
+        assertEquals(2.0, dad.get(2), 0.0);
+        assertEquals(0.0, dad.removeFirst(), 0.0);
+        assertEquals(2.0, dad.removeLast(), 0.0);
+        assertEquals(1.0, dad.removeLast(), 0.0);
+        assertTrue(dad.isEmpty());
+    }
+
+    /** Checks that items survive the resizes of a wrapped-around array against ArrayDeque. */
+    @Test
+    public void matchesArrayDequeTest() {
+        DoubleArrayDeque dad = new DoubleArrayDeque();
+        ArrayDeque<Double> ad = new ArrayDeque<>();
+        for (int i = 0; i < 10000; i++) {
+            if (i % 3 == 0) {
+                dad.addFirst(i);
+                ad.addFirst((double) i);
+            } else {
+                dad.addLast(i);
+                ad.addLast((double) i);
+            }
+            if (i % 7 == 0) {
+                assertEquals(ad.removeFirst(), dad.removeFirst(), 0.0);
+            }
+        }
+        assertEquals(ad.size(), dad.size());
+        for (int i = 0; i < ad.size(); i++) {
+            assertEquals(ad.get(i), dad.get(i), 0.0);
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFromEmptyTest() {
+        new DoubleArrayDeque().removeFirst();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfRangeTest() {
+        DoubleArrayDeque dad = new DoubleArrayDeque();
+        dad.addLast(1.0);
+        dad.get(1);
+    }
+}
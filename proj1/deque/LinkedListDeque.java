@@ -1,15 +1,18 @@
 package deque;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
-public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
-    private Node sentinel;
+public class LinkedListDeque<T> implements Deque<T>, Iterable<T>, MemoryFootprint {
+    private Node<T> sentinel;
     private int size;
 
-    private class Node {
-        Node prev;
+    /** Static, so nodes spliced into another deque keep no reference to this one */
+    private static class Node<T> {
+        Node<T> prev;
         T item;
-        Node next;
+        Node<T> next;
 
         Node(T elem) {
             item = elem;
@@ -20,7 +23,7 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
     /** Constructor to make an empty list */
     public LinkedListDeque() {
         size = 0;
-        sentinel = new Node(null);
+        sentinel = new Node<>(null);
         sentinel.prev = sentinel;
         sentinel.next = sentinel;
     }
@@ -28,8 +31,8 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
     /** Adds an item of type T to the front of the deque. You can assume that item is never null. */
     @Override
     public void addFirst(T item) {
-        Node first = sentinel.next;
-        Node newNode = new Node(item);
+        Node<T> first = sentinel.next;
+        Node<T> newNode = new Node<>(item);
         newNode.prev = sentinel;
         newNode.next = first;
         first.prev = newNode;
@@ -40,8 +43,8 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
     /** Adds an item of type T to the back of the deque. You can assume that item is never null. */
     @Override
     public void addLast(T item) {
-        Node last = sentinel.prev;
-        Node newNode = new Node(item);
+        Node<T> last = sentinel.prev;
+        Node<T> newNode = new Node<>(item);
         last.next = newNode;
         newNode.prev = last;
         newNode.next = sentinel;
@@ -59,7 +62,7 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
      *  Once all the items have been printed, print out a new line. */
     @Override
     public void printDeque() {
-        Node pointer = sentinel.next;
+        Node<T> pointer = sentinel.next;
 
         while (pointer != sentinel) {
             System.out.print(pointer.item + " ");
@@ -77,7 +80,7 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
             return null;
         }
 
-        Node first = sentinel.next;
+        Node<T> first = sentinel.next;
         sentinel.next = first.next;
         first.next.prev = sentinel;
         size--;
@@ -93,7 +96,7 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
             return null;
         }
 
-        Node last = sentinel.prev;
+        Node<T> last = sentinel.prev;
         last.prev.next = sentinel;
         sentinel.prev = last.prev;
         size--;
@@ -105,7 +108,7 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
      * If no such item exists, returns null. Must not alter the deque! */
     @Override
     public T get(int index) {
-        Node pointer = sentinel.next;
+        Node<T> pointer = sentinel.next;
         int i = 0;
 
         while (pointer != sentinel) {
@@ -119,11 +122,102 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
         return null;
     }
 
+    /** Adds every item of items to the back of the deque, linking them into place in one splice. */
+    @Override
+    public void addAllLast(T[] items) {
+        if (items.length == 0) {
+            return;
+        }
+        Node<T> first = new Node<>(items[0]);
+        Node<T> last = first;
+        for (int i = 1; i < items.length; i++) {
+            Node<T> node = new Node<>(items[i]);
+            last.next = node;
+            node.prev = last;
+            last = node;
+        }
+        splice(first, last, items.length);
+    }
+
+    /**
+     * Removes up to n items from the front of the deque and hands them to
+     * action in order. The whole run of nodes is unlinked at once.
+     */
+    @Override
+    public int drainFirst(int n, Consumer<? super T> action) {
+        int count = Math.min(n, size);
+        if (count <= 0) {
+            return 0;
+        }
+        Node<T> first = sentinel.next;
+        Node<T> last = first;
+        for (int i = 1; i < count; i++) {
+            last = last.next;
+        }
+        sentinel.next = last.next;
+        last.next.prev = sentinel;
+        size -= count;
+
+        Node<T> node = first;
+        for (int i = 0; i < count; i++) {
+            action.accept(node.item);
+            node = node.next;
+        }
+        return count;
+    }
+
+    /**
+     * Moves every item to the back of other, leaving this deque empty. When
+     * other is also a LinkedListDeque the nodes are spliced over in O(1).
+     */
+    @Override
+    public void transferTo(Deque<T> other) {
+        if (other == this || isEmpty()) {
+            return;
+        }
+        if (!(other instanceof LinkedListDeque)) {
+            Deque.super.transferTo(other);
+            return;
+        }
+        Node<T> first = sentinel.next;
+        Node<T> last = sentinel.prev;
+        int count = size;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        size = 0;
+        ((LinkedListDeque<T>) other).splice(first, last, count);
+    }
+
+    /** Links the chain of count nodes from first to last onto the back of the deque */
+    private void splice(Node<T> first, Node<T> last, int count) {
+        Node<T> oldLast = sentinel.prev;
+        oldLast.next = first;
+        first.prev = oldLast;
+        last.next = sentinel;
+        sentinel.prev = last;
+        size += count;
+    }
+
+    /** Returns the number of items, since every item has its own node and there are no spare ones */
+    @Override
+    public int capacity() {
+        return size;
+    }
+
+    /** Returns the estimated bytes used by this object, the sentinel and one node per item */
+    @Override
+    public long footprint() {
+        // header, sentinel reference and size; each node has prev, item and next
+        long self = MemoryFootprint.align(OBJECT_HEADER + REFERENCE + Integer.BYTES);
+        long node = MemoryFootprint.align(OBJECT_HEADER + 3 * REFERENCE);
+        return self + node * (size + 1L);
+    }
+
     public T getRecursive(int index) {
         return getHelper(index, sentinel.next);
     }
 
-    private T getHelper(int index, Node node) {
+    private T getHelper(int index, Node<T> node) {
         if (node == sentinel) {
             return null;
         }
@@ -142,22 +236,26 @@ public class LinkedListDeque<T> implements Deque<T>, Iterable<T> {
         return new LLDequeIterator();
     }
 
+    /** Follows the next pointers, rather than calling get for each position */
     private class LLDequeIterator implements Iterator<T> {
-        private int pos;
+        private Node<T> node;
 
         LLDequeIterator() {
-            pos = 0;
+            node = sentinel.next;
         }
 
         @Override
         public boolean hasNext() {
-            return pos < size;
+            return node != sentinel;
         }
 
         @Override
         public T next() {
-            T item = get(pos);
-            pos += 1;
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = node.item;
+            node = node.next;
             return item;
         }
     }
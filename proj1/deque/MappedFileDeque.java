@@ -0,0 +1,485 @@
+package deque;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * A durable deque whose items live in a memory-mapped file rather than on
+ * the heap, so it can hold far more than fits in memory and survives
+ * restarts.
+ *
+ * The file is a small header followed by a circular byte buffer, used the
+ * way ArrayDeque uses its array: nextFirst and nextLast count bytes and are
+ * masked into the power-of-two buffer. Each item is stored as a record
+ * [length][bytes][length]; the length at both ends lets removeLast find the
+ * start of the last record as easily as removeFirst finds the end of the
+ * first. Items are turned into bytes by a Codec.
+ *
+ * The header holds two copies of the pointers, each with a sequence number
+ * and a checksum, and sync() always overwrites the older copy, so a crash
+ * part way through writing one still leaves the other intact. sync() forces
+ * the records to disk before it writes the pointers that refer to them, and
+ * space freed since the last sync is not reused until after the next one,
+ * so the pointers on disk never describe records that have been overwritten.
+ * Opening the file again recovers the deque as of the last sync.
+ *
+ * syncEvery sets how often that happens: after every syncEvery adds and
+ * removes, or only on sync() and close() if it is 0. Larger values trade
+ * the number of operations that can be lost in a crash for throughput.
+ * An add that only fits in space freed since the last sync syncs first,
+ * including an add at an end the deque has shrunk back from since then.
+ *
+ * The buffer has a fixed capacity of at most 1 GiB. Adding to a full deque
+ * throws IllegalStateException. get(i) walks i records from the front.
+ */
+public class MappedFileDeque<T> implements Deque<T>, Iterable<T>, Closeable {
+
+    /** Turns items into the bytes stored in the file and back */
+    public interface Codec<T> {
+        byte[] encode(T item);
+
+        T decode(byte[] bytes);
+    }
+
+    /** Stores strings as UTF-8 */
+    public static final Codec<String> UTF8 = new Codec<String>() {
+        @Override
+        public byte[] encode(String item) {
+            return item.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Stores byte arrays as they are */
+    public static final Codec<byte[]> BYTES = new Codec<byte[]>() {
+        @Override
+        public byte[] encode(byte[] item) {
+            return item;
+        }
+
+        @Override
+        public byte[] decode(byte[] bytes) {
+            return bytes;
+        }
+    };
+
+    private static final int MAGIC = 0x44514D46;
+    private static final int VERSION = 1;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /*
+     * Header layout: magic, version, capacity, then two pointer slots of
+     * SLOT_SIZE bytes, each holding seq, nextFirst, nextLast, size and a
+     * CRC32 of those fields. The buffer starts at HEADER_SIZE.
+     */
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SLOT_OFFSET = 16;
+    private static final int SLOT_SIZE = 32;
+    private static final int SLOT_CHECKED_BYTES = 28;
+    private static final int HEADER_SIZE = 128;
+
+    /** Bytes around each record's payload: its length at the start and again at the end */
+    private static final int RECORD_OVERHEAD = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final Codec<T> codec;
+    private final int capacity;
+    private final int syncEvery;
+
+    /** Byte position of the first record. Only ever masked into the buffer, so it may be negative. */
+    private long nextFirst;
+    /** Byte position just past the last record */
+    private long nextLast;
+    private int size;
+
+    /** The pointers as of the last sync, whose records must not be overwritten until the next one */
+    private long syncedFirst;
+    private long syncedLast;
+    private long seq;
+    private int opsSinceSync;
+
+    private MappedFileDeque(FileChannel channel, MappedByteBuffer map, Codec<T> codec,
+                            int capacity, int syncEvery) {
+        this.channel = channel;
+        this.map = map;
+        this.codec = codec;
+        this.capacity = capacity;
+        this.syncEvery = syncEvery;
+    }
+
+    /**
+     * Opens the deque stored in file, creating the file with room for
+     * capacity bytes of records (rounded up to a power of two) if it does
+     * not exist. An existing file keeps the capacity it was created with.
+     */
+    public static <T> MappedFileDeque<T> open(Path file, int capacity, Codec<T> codec, int syncEvery)
+            throws IOException {
+        if (capacity < RECORD_OVERHEAD || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between " + RECORD_OVERHEAD
+                    + " and " + MAX_CAPACITY + " bytes");
+        }
+        if (syncEvery < 0) {
+            throw new IllegalArgumentException("syncEvery must not be negative");
+        }
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (exists) {
+                return reopen(channel, codec, syncEvery);
+            }
+            int length = RECORD_OVERHEAD;
+            while (length < capacity) {
+                length <<= 1;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + length);
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(CAPACITY_OFFSET, length);
+            MappedFileDeque<T> deque = new MappedFileDeque<>(channel, map, codec, length, syncEvery);
+            deque.sync();
+            return deque;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static <T> MappedFileDeque<T> reopen(FileChannel channel, Codec<T> codec, int syncEvery)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("not a deque file, or written by another version");
+        }
+        int capacity = header.getInt(CAPACITY_OFFSET);
+        if (Integer.bitCount(capacity) != 1 || channel.size() < HEADER_SIZE + (long) capacity) {
+            throw new IOException("deque file is truncated or corrupt");
+        }
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+        MappedFileDeque<T> deque = new MappedFileDeque<>(channel, map, codec, capacity, syncEvery);
+        int slot = deque.newestValidSlot();
+        if (slot < 0) {
+            throw new IOException("deque file has no valid header");
+        }
+        deque.loadSlot(slot);
+        return deque;
+    }
+
+    /* ---------------------- Header ---------------------- */
+
+    private int slotOffset(int slot) {
+        return SLOT_OFFSET + slot * SLOT_SIZE;
+    }
+
+    private int checksum(int offset) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < SLOT_CHECKED_BYTES; i++) {
+            crc.update(map.get(offset + i));
+        }
+        return (int) crc.getValue();
+    }
+
+    /** Returns the slot with the highest sequence number whose checksum matches, or -1 */
+    private int newestValidSlot() {
+        int best = -1;
+        long bestSeq = -1;
+        for (int slot = 0; slot < 2; slot++) {
+            int offset = slotOffset(slot);
+            if (map.getInt(offset + SLOT_CHECKED_BYTES) == checksum(offset) && map.getLong(offset) > bestSeq) {
+                best = slot;
+                bestSeq = map.getLong(offset);
+            }
+        }
+        return best;
+    }
+
+    private void loadSlot(int slot) {
+        int offset = slotOffset(slot);
+        seq = map.getLong(offset);
+        nextFirst = map.getLong(offset + 8);
+        nextLast = map.getLong(offset + 16);
+        size = map.getInt(offset + 24);
+        syncedFirst = nextFirst;
+        syncedLast = nextLast;
+    }
+
+    /**
+     * Makes every add and remove so far durable: forces the records to
+     * disk, then writes and forces the current pointers into the older of
+     * the two header slots.
+     */
+    public void sync() {
+        map.force(HEADER_SIZE, capacity);
+        seq += 1;
+        int offset = slotOffset((int) (seq & 1));
+        map.putLong(offset, seq);
+        map.putLong(offset + 8, nextFirst);
+        map.putLong(offset + 16, nextLast);
+        map.putInt(offset + 24, size);
+        map.putInt(offset + SLOT_CHECKED_BYTES, checksum(offset));
+        map.force(offset, SLOT_SIZE);
+        syncedFirst = nextFirst;
+        syncedLast = nextLast;
+        opsSinceSync = 0;
+    }
+
+    /** Counts one add or remove, syncing if the policy says it is time */
+    private void written() {
+        opsSinceSync += 1;
+        if (syncEvery > 0 && opsSinceSync >= syncEvery) {
+            sync();
+        }
+    }
+
+    /** Syncs and closes the file. The deque cannot be used afterwards. */
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    /* ---------------------- Buffer ---------------------- */
+
+    private int index(long position) {
+        return HEADER_SIZE + (int) (position & (capacity - 1));
+    }
+
+    private void putBytes(long position, byte[] bytes) {
+        int start = (int) (position & (capacity - 1));
+        int firstPart = Math.min(bytes.length, capacity - start);
+        ByteBuffer b = map.duplicate();
+        b.position(HEADER_SIZE + start);
+        b.put(bytes, 0, firstPart);
+        b.position(HEADER_SIZE);
+        b.put(bytes, firstPart, bytes.length - firstPart);
+    }
+
+    private byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        int start = (int) (position & (capacity - 1));
+        int firstPart = Math.min(length, capacity - start);
+        ByteBuffer b = map.duplicate();
+        b.position(HEADER_SIZE + start);
+        b.get(bytes, 0, firstPart);
+        b.position(HEADER_SIZE);
+        b.get(bytes, firstPart, length - firstPart);
+        return bytes;
+    }
+
+    private void putInt(long position, int value) {
+        for (int i = 0; i < 4; i++) {
+            map.put(index(position + i), (byte) (value >>> (24 - 8 * i)));
+        }
+    }
+
+    private int getInt(long position) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (map.get(index(position + i)) & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Returns true if a record of recordLength bytes fits at the front, or
+     * at the back, without touching any byte that is live now or was live
+     * at the last sync. The records of the last sync stay reserved even
+     * where they have since been removed, so a new record has to land
+     * outside [syncedFirst, syncedLast) as well as outside the live range.
+     */
+    private boolean fits(long recordLength, boolean atFront) {
+        if (syncedFirst == syncedLast) {
+            return nextLast - nextFirst + recordLength <= capacity;
+        }
+        long low = Math.min(nextFirst, syncedFirst);
+        long high = Math.max(nextLast, syncedLast);
+        if (atFront) {
+            return nextFirst <= syncedFirst && high - (nextFirst - recordLength) <= capacity;
+        }
+        return nextLast >= syncedLast && nextLast + recordLength - low <= capacity;
+    }
+
+    /** Encodes item and checks that its record will fit at the given end, syncing to free space if that helps */
+    private byte[] encodeForAdd(T item, boolean atFront) {
+        byte[] bytes = codec.encode(item);
+        long recordLength = (long) bytes.length + RECORD_OVERHEAD;
+        if (!fits(recordLength, atFront)) {
+            sync();
+            if (!fits(recordLength, atFront)) {
+                throw new IllegalStateException("deque file is full");
+            }
+        }
+        return bytes;
+    }
+
+    private void writeRecord(long start, byte[] bytes) {
+        putInt(start, bytes.length);
+        putBytes(start + 4, bytes);
+        putInt(start + 4 + bytes.length, bytes.length);
+    }
+
+    /* ---------------------- Deque ---------------------- */
+
+    /** Adds an item of type T to the front of the deque. */
+    @Override
+    public void addFirst(T item) {
+        byte[] bytes = encodeForAdd(item, true);
+        long start = nextFirst - bytes.length - RECORD_OVERHEAD;
+        writeRecord(start, bytes);
+        nextFirst = start;
+        size++;
+        written();
+    }
+
+    /** Adds an item of type T to the back of the deque. */
+    @Override
+    public void addLast(T item) {
+        byte[] bytes = encodeForAdd(item, false);
+        writeRecord(nextLast, bytes);
+        nextLast += bytes.length + RECORD_OVERHEAD;
+        size++;
+        written();
+    }
+
+    /** Returns the number of items in the deque. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of bytes the buffer can hold, records and their lengths included */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Prints the items in the deque from first to last, separated by a space.
+     *  Once all the items have been printed, print out a new line. */
+    @Override
+    public void printDeque() {
+        for (T item : this) {
+            System.out.print(item + " ");
+        }
+        System.out.println();
+    }
+
+    /** Removes and returns the item at the front of the deque.
+     * If no such item exists, returns null. */
+    @Override
+    public T removeFirst() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        int length = getInt(nextFirst);
+        byte[] bytes = getBytes(nextFirst + 4, length);
+        nextFirst += length + RECORD_OVERHEAD;
+        size--;
+        written();
+        return codec.decode(bytes);
+    }
+
+    /** Removes and returns the item at the back of the deque.
+     * If no such item exists, returns null. */
+    @Override
+    public T removeLast() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        int length = getInt(nextLast - 4);
+        long start = nextLast - length - RECORD_OVERHEAD;
+        byte[] bytes = getBytes(start + 4, length);
+        nextLast = start;
+        size--;
+        written();
+        return codec.decode(bytes);
+    }
+
+    /** Gets the item at the given index, where 0 is the front, 1 is the next item, and so forth.
+     * If no such item exists, returns null. Walks index records from the front. */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+
+        long position = nextFirst;
+        for (int i = 0; i < index; i++) {
+            position += getInt(position) + RECORD_OVERHEAD;
+        }
+        return codec.decode(getBytes(position + 4, getInt(position)));
+    }
+
+    /** Returns an iterator that walks the records from front to back. */
+    @Override
+    public Iterator<T> iterator() {
+        return new MappedIterator();
+    }
+
+    private class MappedIterator implements Iterator<T> {
+        private long position = nextFirst;
+        private int remaining = size;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int length = getInt(position);
+            T item = codec.decode(getBytes(position + 4, length));
+            position += length + RECORD_OVERHEAD;
+            remaining -= 1;
+            return item;
+        }
+    }
+
+    /** Returns whether the parameter o is equal to the Deque.
+     * o is considered equal if it is a Deque and if it contains the same contents
+     * (as governed by the generic T’s equals method) in the same order. */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Deque)) {
+            return false;
+        }
+
+        Deque<T> comp = (Deque<T>) o;
+
+        if (this == comp) {
+            return true;
+        }
+        if (this.size() != comp.size()) {
+            return false;
+        }
+
+        int index = 0;
+        for (T item : this) {
+            if (!item.equals(comp.get(index))) {
+                return false;
+            }
+            index++;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+package deque;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Tests of the memory-mapped deque: ring wrap-around, reopening and recovery after a crash. */
+public class MappedFileDequeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file() throws IOException {
+        return folder.getRoot().toPath().resolve("deque.dat");
+    }
+
+    @Test
+    public void addRemoveTest() throws IOException {
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 1024, MappedFileDeque.UTF8, 1)) {
+            assertTrue(d.isEmpty());
+            assertNull(d.removeFirst());
+            assertNull(d.removeLast());
+
+            d.addLast("middle");
+            d.addFirst("front");
+            d.addLast("back");
+            assertEquals(3, d.size());
+            assertEquals("front", d.get(0));
+            assertEquals("middle", d.get(1));
+            assertEquals("back", d.get(2));
+            assertNull(d.get(3));
+
+            assertEquals("back", d.removeLast());
+            assertEquals("front", d.removeFirst());
+            assertEquals("middle", d.removeFirst());
+            assertTrue(d.isEmpty());
+        }
+    }
+
+    @Test
+    /* A small buffer that records keep wrapping around, compared against java.util.ArrayDeque. */
+    public void wrapAroundRandomizedTest() throws IOException {
+        java.util.ArrayDeque<String> expected = new java.util.ArrayDeque<>();
+        Random random = new Random(61);
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 256, MappedFileDeque.UTF8, 5)) {
+            for (int i = 0; i < 20000; i++) {
+                int op = random.nextInt(4);
+                String item = "x".repeat(random.nextInt(12)) + i;
+                if (op == 0 && expected.size() < 8) {
+                    d.addFirst(item);
+                    expected.addFirst(item);
+                } else if (op == 1 && expected.size() < 8) {
+                    d.addLast(item);
+                    expected.addLast(item);
+                } else if (op == 2) {
+                    assertEquals(expected.pollFirst(), d.removeFirst());
+                } else {
+                    assertEquals(expected.pollLast(), d.removeLast());
+                }
+                assertEquals(expected.size(), d.size());
+            }
+            int index = 0;
+            for (String item : d) {
+                assertEquals(expected.toArray()[index], item);
+                index++;
+            }
+        }
+    }
+
+    @Test
+    public void reopenTest() throws IOException {
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 4096, MappedFileDeque.UTF8, 0)) {
+            for (int i = 0; i < 100; i++) {
+                d.addLast("item" + i);
+            }
+            d.removeFirst();
+        }
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 64, MappedFileDeque.UTF8, 0)) {
+            assertEquals("keeps the capacity it was created with", 4096, d.capacity());
+            assertEquals(99, d.size());
+            assertEquals("item1", d.get(0));
+            assertEquals("item99", d.removeLast());
+        }
+    }
+
+    @Test
+    /* Operations after the last sync are lost, but the deque comes back as of that sync. */
+    public void recoversLastSyncTest() throws IOException {
+        MappedFileDeque<String> crashed = MappedFileDeque.open(file(), 4096, MappedFileDeque.UTF8, 0);
+        for (int i = 0; i < 5; i++) {
+            crashed.addLast("synced" + i);
+        }
+        crashed.sync();
+        // Churn without syncing, as if the process then died
+        for (int i = 0; i < 100; i++) {
+            crashed.removeFirst();
+            crashed.addLast("unsynced" + i);
+        }
+
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 4096, MappedFileDeque.UTF8, 0)) {
+            assertEquals(5, d.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals("synced" + i, d.get(i));
+            }
+        }
+    }
+
+    @Test
+    /* Adding back at the end just removed from must not overwrite records the last sync
+     * points at: the add syncs first, so the crash recovers the deque as it was just before it. */
+    public void recoversAfterRemoveAddLastTest() throws IOException {
+        MappedFileDeque<String> crashed = MappedFileDeque.open(file(), 4096, MappedFileDeque.UTF8, 0);
+        crashed.addLast("alpha");
+        crashed.addLast("beta");
+        crashed.sync();
+        crashed.removeLast();
+        crashed.addLast("a-much-longer-replacement-item");
+
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 4096, MappedFileDeque.UTF8, 0)) {
+            assertEquals(1, d.size());
+            assertEquals("alpha", d.get(0));
+            assertEquals("alpha", d.iterator().next());
+        }
+    }
+
+    @Test
+    /* The same at the front, after the back has moved as well. */
+    public void recoversAfterRemoveAddFirstTest() throws IOException {
+        MappedFileDeque<String> crashed = MappedFileDeque.open(file(), 4096, MappedFileDeque.UTF8, 0);
+        crashed.addLast("alpha");
+        crashed.addLast("beta");
+        crashed.sync();
+        crashed.removeLast();
+        crashed.addLast("x");
+        crashed.removeFirst();
+        crashed.addFirst("zz");
+
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 4096, MappedFileDeque.UTF8, 0)) {
+            assertEquals(1, d.size());
+            assertEquals("x", d.get(0));
+            assertEquals("x", d.iterator().next());
+        }
+    }
+
+    @Test
+    /* A torn write of the newest header slot falls back to the other one. */
+    public void corruptHeaderSlotTest() throws IOException {
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 1024, MappedFileDeque.UTF8, 1)) {
+            d.addLast("a");
+            d.addLast("b");
+        }
+        // close() synced last; sequence numbers alternate between the slots at 16 and 48
+        try (RandomAccessFile raw = new RandomAccessFile(file().toFile(), "rw")) {
+            raw.seek(newestSlot(raw) + 8);
+            raw.writeLong(12345);
+        }
+        try (MappedFileDeque<String> d = MappedFileDeque.open(file(), 1024, MappedFileDeque.UTF8, 1)) {
+            assertEquals(2, d.size());
+            assertEquals("a", d.get(0));
+            assertEquals("b", d.get(1));
+        }
+    }
+
+    private static long newestSlot(RandomAccessFile raw) throws IOException {
+        raw.seek(16);
+        long seq0 = raw.readLong();
+        raw.seek(48);
+        long seq1 = raw.readLong();
+        return seq0 > seq1 ? 16 : 48;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fullTest() throws IOException {
+        try (MappedFileDeque<byte[]> d = MappedFileDeque.open(file(), 64, MappedFileDeque.BYTES, 0)) {
+            for (int i = 0; i < 10; i++) {
+                d.addLast(new byte[16]);
+            }
+        }
+    }
+}
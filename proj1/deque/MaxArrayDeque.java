@@ -1,22 +1,187 @@
 package deque;
 
 import java.util.Comparator;
+import java.util.function.Consumer;
 
+/**
+ * An ArrayDeque that can report its largest (or smallest) item.
+ *
+ * By default max() scans the whole deque. With a Tracking mode the deque
+ * also keeps a companion deque of candidates: the items that are at least
+ * as large as every item behind them, which are non-increasing from front
+ * to back. Its front is the maximum, so max() is O(1), and each item is
+ * added to and dropped from the candidates at most once, so addFirst,
+ * addLast and removeFirst stay amortized O(1). That makes the deque a
+ * sliding-window maximum when it is used as a queue.
+ *
+ * removeLast can expose items the removed one had knocked out of the
+ * candidates, so it marks them stale and the next max() rebuilds them
+ * with one scan.
+ */
 public class MaxArrayDeque<T> extends ArrayDeque<T> {
+
+    /** Which extremes a MaxArrayDeque keeps up to date as items come and go */
+    public enum Tracking {
+        /** max() and min() scan the deque */
+        NONE,
+        /** max() is O(1), min() scans */
+        MAX,
+        /** min() is O(1), max() scans */
+        MIN,
+        /** max() and min() are both O(1) */
+        BOTH
+    }
+
     private Comparator<T> comparator;
+    private final Candidates<T> maxCandidates;
+    private final Candidates<T> minCandidates;
 
     /** Creates a MaxArrayDeque with the given Comparator */
     public MaxArrayDeque(Comparator<T> c) {
+        this(c, Tracking.NONE);
+    }
+
+    /** Creates a MaxArrayDeque with the given Comparator that tracks the given extremes */
+    public MaxArrayDeque(Comparator<T> c, Tracking tracking) {
         comparator = c;
+        boolean max = tracking == Tracking.MAX || tracking == Tracking.BOTH;
+        boolean min = tracking == Tracking.MIN || tracking == Tracking.BOTH;
+        maxCandidates = max ? new Candidates<>(c) : null;
+        minCandidates = min ? new Candidates<>(c.reversed()) : null;
+    }
+
+    @Override
+    public void addFirst(T item) {
+        super.addFirst(item);
+        if (maxCandidates != null) {
+            maxCandidates.addedFirst(item);
+        }
+        if (minCandidates != null) {
+            minCandidates.addedFirst(item);
+        }
+    }
+
+    @Override
+    public void addLast(T item) {
+        super.addLast(item);
+        if (maxCandidates != null) {
+            maxCandidates.addedLast(item);
+        }
+        if (minCandidates != null) {
+            minCandidates.addedLast(item);
+        }
+    }
+
+    @Override
+    public T removeFirst() {
+        if (isEmpty()) {
+            return null;
+        }
+        T item = super.removeFirst();
+        removedFirst(item);
+        return item;
     }
 
+    @Override
+    public T removeLast() {
+        if (isEmpty()) {
+            return null;
+        }
+        T item = super.removeLast();
+        if (maxCandidates != null) {
+            maxCandidates.stale = true;
+        }
+        if (minCandidates != null) {
+            minCandidates.stale = true;
+        }
+        return item;
+    }
+
+    @Override
+    public void addAllLast(T[] items) {
+        int oldSize = size();
+        super.addAllLast(items);
+        addedLast(oldSize);
+    }
+
+    @Override
+    public void addAllLast(Deque<? extends T> other) {
+        int oldSize = size();
+        super.addAllLast(other);
+        addedLast(oldSize);
+    }
+
+    /** Feeds the items from position oldSize on, just added in bulk, to the candidates */
+    private void addedLast(int oldSize) {
+        for (int i = oldSize; i < size(); i++) {
+            T item = get(i);
+            if (maxCandidates != null) {
+                maxCandidates.addedLast(item);
+            }
+            if (minCandidates != null) {
+                minCandidates.addedLast(item);
+            }
+        }
+    }
+
+    @Override
+    public int drainFirst(int n, Consumer<? super T> action) {
+        return super.drainFirst(n, item -> {
+            removedFirst(item);
+            action.accept(item);
+        });
+    }
+
+    @Override
+    public int drainFirst(int n, T[] dest) {
+        int count = super.drainFirst(n, dest);
+        for (int i = 0; i < count; i++) {
+            removedFirst(dest[i]);
+        }
+        return count;
+    }
+
+    private void removedFirst(T item) {
+        if (maxCandidates != null) {
+            maxCandidates.removedFirst(item);
+        }
+        if (minCandidates != null) {
+            minCandidates.removedFirst(item);
+        }
+    }
+
+    @Override
+    public void transferTo(Deque<T> other) {
+        if (other == this) {
+            return;
+        }
+        super.transferTo(other);
+        if (maxCandidates != null) {
+            maxCandidates.stale = true;
+        }
+        if (minCandidates != null) {
+            minCandidates.stale = true;
+        }
+    }
 
     /** Returns the maximum element in the deque as governed by the previously given Comparator.
      * If the MaxArrayDeque is empty, simply return null */
     public T max() {
+        if (maxCandidates != null) {
+            return maxCandidates.front(this);
+        }
         return max(comparator);
     }
 
+    /** Returns the minimum element in the deque as governed by the previously given Comparator.
+     * If the MaxArrayDeque is empty, simply return null */
+    public T min() {
+        if (minCandidates != null) {
+            return minCandidates.front(this);
+        }
+        return max(comparator.reversed());
+    }
+
     /** Returns the maximum element in the deque as governed by the parameter Comparator c.
      * If the MaxArrayDeque is empty, simply return null. */
     public T max(Comparator<T> c) {
@@ -31,4 +196,62 @@ public class MaxArrayDeque<T> extends ArrayDeque<T> {
         }
         return max;
     }
+
+    /**
+     * The items that are at least as large as every item behind them, front
+     * to back. Equal items are all kept, so when an item leaves the front of
+     * the deque it can be matched against the front candidate by comparison
+     * alone, without tracking positions.
+     */
+    private static class Candidates<T> {
+        private final Comparator<T> comparator;
+        private final ArrayDeque<T> items = new ArrayDeque<>();
+        private boolean stale;
+
+        Candidates(Comparator<T> comparator) {
+            this.comparator = comparator;
+        }
+
+        void addedLast(T item) {
+            if (stale) {
+                return;
+            }
+            while (!items.isEmpty() && comparator.compare(items.get(items.size() - 1), item) < 0) {
+                items.removeLast();
+            }
+            items.addLast(item);
+        }
+
+        void addedFirst(T item) {
+            if (stale) {
+                return;
+            }
+            if (items.isEmpty() || comparator.compare(item, items.get(0)) >= 0) {
+                items.addFirst(item);
+            }
+        }
+
+        void removedFirst(T item) {
+            if (stale) {
+                return;
+            }
+            if (comparator.compare(items.get(0), item) == 0) {
+                items.removeFirst();
+            }
+        }
+
+        /** Returns the largest item of deque, rebuilding the candidates first if they are stale */
+        T front(ArrayDeque<T> deque) {
+            if (stale) {
+                stale = false;
+                while (!items.isEmpty()) {
+                    items.removeLast();
+                }
+                for (int i = deque.size() - 1; i >= 0; i--) {
+                    addedFirst(deque.get(i));
+                }
+            }
+            return items.get(0);
+        }
+    }
 }
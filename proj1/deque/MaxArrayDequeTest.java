@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.util.Comparator;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -61,4 +62,47 @@ public class MaxArrayDequeTest {
         assertEquals("String: min comparator", "1", test.max(min));
 
     }
+
+    @Test
+    /** Slides a window over random values and checks the tracked max and min against a scan */
+    public void slidingWindowTest() {
+        Comparator<Integer> natural = Comparator.naturalOrder();
+        MaxArrayDeque<Integer> window = new MaxArrayDeque<>(natural, MaxArrayDeque.Tracking.BOTH);
+        Random random = new Random(61);
+        for (int i = 0; i < 5000; i++) {
+            window.addLast(random.nextInt(50));
+            if (window.size() > 20) {
+                window.removeFirst();
+            }
+            assertEquals("max at step " + i, window.max(natural), window.max());
+            assertEquals("min at step " + i, window.max(natural.reversed()), window.min());
+        }
+    }
+
+    @Test
+    /** Mixes all four deque operations, including removeLast which forces a rebuild */
+    public void trackingMixedOperationsTest() {
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        MaxArrayDeque<String> test = new MaxArrayDeque<>(byLength, MaxArrayDeque.Tracking.MAX);
+        assertNull(test.max());
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            int op = random.nextInt(4);
+            String item = "x".repeat(random.nextInt(30));
+            if (op == 0) {
+                test.addFirst(item);
+            } else if (op == 1) {
+                test.addLast(item);
+            } else if (op == 2) {
+                test.removeFirst();
+            } else {
+                test.removeLast();
+            }
+            if (test.isEmpty()) {
+                assertNull(test.max());
+            } else {
+                assertEquals("max at step " + i, test.max(byLength).length(), test.max().length());
+            }
+        }
+    }
 }
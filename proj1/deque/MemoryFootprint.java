@@ -0,0 +1,32 @@
+package deque;
+
+/**
+ * Reports how much memory a deque's own structure takes, so waste after a
+ * burst can be watched. Neither number counts the items themselves, which
+ * are the same whatever deque holds them.
+ *
+ * footprint() is an estimate for a 64-bit JVM with compressed references
+ * (the default below 32 GiB of heap): 12-byte object headers, 16-byte
+ * array headers, 4-byte references, everything rounded up to 8 bytes.
+ */
+public interface MemoryFootprint {
+    int OBJECT_HEADER = 12;
+    int ARRAY_HEADER = 16;
+    int REFERENCE = 4;
+
+    /** Returns the number of items the deque can hold without allocating */
+    int capacity();
+
+    /** Returns the estimated number of bytes used by the deque, not counting its items */
+    long footprint();
+
+    /** Rounds bytes up to the 8-byte alignment of objects on the heap */
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /** Returns the size of an array of length references */
+    static long referenceArray(int length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+}
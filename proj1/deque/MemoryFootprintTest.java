@@ -0,0 +1,130 @@
+package deque;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of ArrayDeque's shrink policies and the capacity/footprint statistics. */
+public class MemoryFootprintTest {
+
+    @Test
+    /* After a burst the array shrinks back down once the deque drains. */
+    public void shrinksAfterBurstTest() {
+        ArrayDeque<Integer> ad = new ArrayDeque<>();
+        for (int i = 0; i < 100000; i++) {
+            ad.addLast(i);
+        }
+        assertEquals(131072, ad.capacity());
+        long burstFootprint = ad.footprint();
+
+        while (ad.size() > 10) {
+            ad.removeFirst();
+        }
+        assertEquals(32, ad.capacity());
+        assertTrue(ad.footprint() < burstFootprint / 1000);
+
+        while (!ad.isEmpty()) {
+            ad.removeLast();
+        }
+        assertEquals("never below the minimum", 8, ad.capacity());
+    }
+
+    @Test
+    /* Adding and removing right at a resize boundary does not resize every time. */
+    public void hysteresisTest() {
+        ArrayDeque<Integer> ad = new ArrayDeque<>();
+        for (int i = 0; i < 63; i++) {
+            ad.addLast(i);
+        }
+        ad.addLast(63);
+        assertEquals(128, ad.capacity());
+        for (int i = 0; i < 1000; i++) {
+            ad.removeLast();
+            assertEquals(128, ad.capacity());
+            ad.addLast(i);
+            assertEquals(128, ad.capacity());
+        }
+
+        while (ad.size() >= 32) {
+            ad.removeFirst();
+        }
+        assertEquals(64, ad.capacity());
+        for (int i = 0; i < 1000; i++) {
+            ad.addLast(i);
+            assertEquals(64, ad.capacity());
+            ad.removeLast();
+            assertEquals(64, ad.capacity());
+        }
+    }
+
+    @Test
+    public void policiesTest() {
+        ArrayDeque<Integer> never = new ArrayDeque<>(ArrayDeque.ShrinkPolicy.NEVER);
+        ArrayDeque<Integer> floor = new ArrayDeque<>(ArrayDeque.ShrinkPolicy.below(3, 1024));
+        for (int i = 0; i < 5000; i++) {
+            never.addLast(i);
+            floor.addLast(i);
+        }
+        never.drainFirst(4990, x -> { });
+        floor.drainFirst(4990, x -> { });
+        assertEquals(8192, never.capacity());
+        assertEquals(1024, floor.capacity());
+
+        never.trimToSize();
+        assertEquals(16, never.capacity());
+        for (int i = 0; i < 10; i++) {
+            assertEquals((Integer) (4990 + i), never.get(i));
+        }
+    }
+
+    @Test
+    /* Emptying by transferTo follows the shrink policy like any other remove. */
+    public void transferToKeepsPolicyTest() {
+        ArrayDeque<Integer> never = new ArrayDeque<>(ArrayDeque.ShrinkPolicy.NEVER);
+        ArrayDeque<Integer> floor = new ArrayDeque<>(ArrayDeque.ShrinkPolicy.below(3, 1024));
+        ArrayDeque<Integer> sparse = new ArrayDeque<>();
+        for (int i = 0; i < 5000; i++) {
+            never.addLast(i);
+            floor.addLast(i);
+            sparse.addLast(i);
+        }
+        ArrayDeque<Integer> other = new ArrayDeque<>();
+        never.transferTo(other);
+        floor.transferTo(other);
+        sparse.transferTo(other);
+        assertEquals(8192, never.capacity());
+        assertEquals(1024, floor.capacity());
+        assertEquals(8, sparse.capacity());
+        assertEquals(15000, other.size());
+
+        never.addLast(7);
+        assertEquals((Integer) 7, never.removeFirst());
+        assertTrue(never.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thrashingPolicyRejectedTest() {
+        ArrayDeque.ShrinkPolicy.below(2, 8);
+    }
+
+    @Test
+    /* Per-item overhead: one reference for arrays, a whole node for linked lists. */
+    public void footprintComparisonTest() {
+        ArrayDeque<Integer> ad = new ArrayDeque<>();
+        LinkedListDeque<Integer> lld = new LinkedListDeque<>();
+        UnrolledLinkedListDeque<Integer> unrolled = new UnrolledLinkedListDeque<>();
+        for (int i = 0; i < 4096; i++) {
+            ad.addLast(i);
+            lld.addLast(i);
+            unrolled.addLast(i);
+        }
+
+        assertEquals(4096, lld.capacity());
+        assertEquals(4096, unrolled.capacity());
+        assertEquals(8192, ad.capacity());
+
+        assertEquals(24L * 4097 + 24, lld.footprint());
+        assertTrue(unrolled.footprint() < lld.footprint() / 4);
+        assertTrue(ad.footprint() < lld.footprint() / 2);
+    }
+}
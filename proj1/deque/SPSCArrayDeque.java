@@ -0,0 +1,175 @@
+package deque;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free circular buffer for exactly one producer thread and
+ * one consumer thread.
+ *
+ * Same circular layout as ArrayDeque: the producer owns nextLast and only
+ * adds at the back (offer), the consumer owns nextFirst and only removes
+ * from the front (poll, drain). Instead of wrapping, both indices count up
+ * forever and are masked into the power-of-two array, so full and empty
+ * are told apart without a separate size field.
+ *
+ * Each side publishes its index with a release store after touching the
+ * array, and reads the other side's index with an acquire load, so no
+ * locks are needed. The indices are padded onto separate cache lines, and
+ * each side caches the other's index so it only re-reads it when the
+ * buffer looks full (producer) or empty (consumer).
+ *
+ * Calling offer from more than one thread, or poll/drain from more than
+ * one thread, is not supported.
+ */
+public class SPSCArrayDeque<T> extends SPSCConsumerFields {
+
+    private static final VarHandle NEXT_FIRST;
+    private static final VarHandle NEXT_LAST;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            NEXT_FIRST = lookup.findVarHandle(SPSCConsumerFields.class, "nextFirst", long.class);
+            NEXT_LAST = lookup.findVarHandle(SPSCProducerFields.class, "nextLast", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final T[] array;
+    private final int mask;
+
+    // Keeps the consumer fields off the cache line of whatever is allocated next
+    private long p20, p21, p22, p23, p24, p25, p26, p27;
+
+    /** Constructor to make an empty buffer holding at most capacity items, rounded up to a power of two */
+    public SPSCArrayDeque(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int length = 1;
+        while (length < capacity) {
+            length <<= 1;
+        }
+        array = (T[]) new Object[length];
+        mask = length - 1;
+    }
+
+    /** Returns the maximum number of items the buffer can hold */
+    public int capacity() {
+        return array.length;
+    }
+
+    /**
+     * Adds an item to the back of the buffer. Producer thread only.
+     * Returns false, without blocking, if the buffer is full.
+     */
+    public boolean offer(T item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        long last = nextLast;
+        if (last - firstCache >= array.length) {
+            firstCache = (long) NEXT_FIRST.getAcquire(this);
+            if (last - firstCache >= array.length) {
+                return false;
+            }
+        }
+        array[(int) last & mask] = item;
+        NEXT_LAST.setRelease(this, last + 1);
+        return true;
+    }
+
+    /**
+     * Removes and returns the item at the front of the buffer. Consumer thread only.
+     * Returns null if the buffer is empty.
+     */
+    public T poll() {
+        long first = nextFirst;
+        if (first >= lastCache) {
+            lastCache = (long) NEXT_LAST.getAcquire(this);
+            if (first >= lastCache) {
+                return null;
+            }
+        }
+        int index = (int) first & mask;
+        T item = array[index];
+        array[index] = null;
+        NEXT_FIRST.setRelease(this, first + 1);
+        return item;
+    }
+
+    /**
+     * Returns the item at the front of the buffer without removing it,
+     * or null if the buffer is empty. Consumer thread only.
+     */
+    public T peek() {
+        long first = nextFirst;
+        if (first >= lastCache) {
+            lastCache = (long) NEXT_LAST.getAcquire(this);
+            if (first >= lastCache) {
+                return null;
+            }
+        }
+        return array[(int) first & mask];
+    }
+
+    /**
+     * Removes up to limit items from the front of the buffer and hands them
+     * to action in order. Consumer thread only. The consumer index is
+     * published once for the whole batch. Returns the number of items drained.
+     * If action throws, the items already handed to it, including the one it
+     * threw on, stay removed and the rest stay in the buffer. limit must not
+     * be negative.
+     */
+    public int drain(Consumer<? super T> action, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        long first = nextFirst;
+        long available = (long) NEXT_LAST.getAcquire(this) - first;
+        int count = (int) Math.min(available, limit);
+        int taken = 0;
+        try {
+            while (taken < count) {
+                int index = (int) (first + taken) & mask;
+                T item = array[index];
+                array[index] = null;
+                taken++;
+                action.accept(item);
+            }
+        } finally {
+            // Publish exactly the slots that were cleared, even if action threw
+            NEXT_FIRST.setRelease(this, first + taken);
+        }
+        return count;
+    }
+
+    /** Removes every item currently in the buffer, see drain(action, limit) */
+    public int drain(Consumer<? super T> action) {
+        return drain(action, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of items in the buffer. Exact when called from
+     * the producer or consumer while the other side is idle; otherwise a
+     * snapshot that may already be out of date.
+     */
+    public int size() {
+        while (true) {
+            long first = (long) NEXT_FIRST.getAcquire(this);
+            long last = (long) NEXT_LAST.getAcquire(this);
+            if (first == (long) NEXT_FIRST.getAcquire(this)) {
+                return (int) (last - first);
+            }
+        }
+    }
+
+    /** Returns true if the buffer has no items. */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
+
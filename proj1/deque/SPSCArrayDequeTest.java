@@ -0,0 +1,112 @@
+package deque;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** Tests of the single-producer/single-consumer circular buffer. */
+public class SPSCArrayDequeTest {
+
+    @Test
+    public void offerPollTest() {
+        SPSCArrayDeque<Integer> q = new SPSCArrayDeque<>(3);
+        assertEquals(4, q.capacity());
+        assertNull(q.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(q.offer(i));
+        }
+        assertFalse("a full buffer rejects offers", q.offer(4));
+        assertEquals(4, q.size());
+        assertEquals(0, q.peek().intValue());
+        assertEquals(0, q.poll().intValue());
+        assertTrue(q.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void drainTest() {
+        SPSCArrayDeque<Integer> q = new SPSCArrayDeque<>(8);
+        for (int i = 0; i < 6; i++) {
+            q.offer(i);
+        }
+        List<Integer> out = new ArrayList<>();
+        assertEquals(4, q.drain(out::add, 4));
+        assertEquals(List.of(0, 1, 2, 3), out);
+        assertEquals(2, q.drain(out::add));
+        assertEquals(0, q.drain(out::add));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), out);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void drainNegativeLimitTest() {
+        SPSCArrayDeque<Integer> q = new SPSCArrayDeque<>(8);
+        q.offer(1);
+        q.drain(x -> { }, -1);
+    }
+
+    /** An item the action throws on is consumed, and the rest stay readable. */
+    @Test
+    public void drainThrowingActionTest() {
+        SPSCArrayDeque<Integer> q = new SPSCArrayDeque<>(8);
+        for (int i = 0; i < 5; i++) {
+            q.offer(i);
+        }
+        List<Integer> out = new ArrayList<>();
+        try {
+            q.drain(item -> {
+                if (item == 2) {
+                    throw new IllegalStateException("boom");
+                }
+                out.add(item);
+            });
+            fail("the action's exception should propagate");
+        } catch (IllegalStateException expected) {
+            assertEquals(List.of(0, 1), out);
+        }
+        assertEquals(2, q.size());
+        assertEquals(3, q.poll().intValue());
+        assertEquals(4, q.poll().intValue());
+        assertNull(q.poll());
+    }
+
+    /** Every item must arrive exactly once and in order across the two threads. */
+    @Test
+    public void producerConsumerTest() throws InterruptedException {
+        int n = 200000;
+        SPSCArrayDeque<Integer> q = new SPSCArrayDeque<>(64);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < n; i++) {
+                while (!q.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        int[] expected = {0};
+        while (expected[0] < n) {
+            if (expected[0] % 2 == 0) {
+                Integer item = q.poll();
+                if (item == null) {
+                    Thread.yield();
+                    continue;
+                }
+                assertEquals(expected[0], item.intValue());
+                expected[0] += 1;
+            } else if (q.drain(item -> {
+                assertEquals(expected[0], item.intValue());
+                expected[0] += 1;
+            }, 16) == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        assertTrue(q.isEmpty());
+    }
+}
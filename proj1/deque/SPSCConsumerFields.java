@@ -0,0 +1,9 @@
+package deque;
+
+/** Fields of SPSCArrayDeque written by the consumer, see SPSCPadding */
+abstract class SPSCConsumerFields extends SPSCMiddlePadding {
+    /** Sequence number of the next item to remove, published with release stores */
+    protected volatile long nextFirst;
+    /** The consumer's last known value of nextLast */
+    protected long lastCache;
+}
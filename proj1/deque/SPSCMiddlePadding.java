@@ -0,0 +1,6 @@
+package deque;
+
+/** Padding between the producer and consumer fields of SPSCArrayDeque, see SPSCPadding */
+abstract class SPSCMiddlePadding extends SPSCProducerFields {
+    private long p10, p11, p12, p13, p14, p15, p16, p17;
+}
@@ -0,0 +1,15 @@
+package deque;
+
+/**
+ * Padding in front of the producer fields of SPSCArrayDeque.
+ *
+ * The buffer's fields are spread over a small class hierarchy
+ * (SPSCPadding, SPSCProducerFields, SPSCMiddlePadding, SPSCConsumerFields,
+ * then SPSCArrayDeque itself), which is the only way to control their
+ * order in memory, with 64 bytes of padding between the producer's and the
+ * consumer's fields so the two threads do not keep invalidating each
+ * other's cache line (false sharing).
+ */
+abstract class SPSCPadding {
+    private long p00, p01, p02, p03, p04, p05, p06, p07;
+}
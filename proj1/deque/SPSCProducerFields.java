@@ -0,0 +1,9 @@
+package deque;
+
+/** Fields of SPSCArrayDeque written by the producer, see SPSCPadding */
+abstract class SPSCProducerFields extends SPSCPadding {
+    /** Sequence number of the next slot to fill, published with release stores */
+    protected volatile long nextLast;
+    /** The producer's last known value of nextFirst */
+    protected long firstCache;
+}
@@ -0,0 +1,276 @@
+package deque;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A deque stored as a doubly linked list of fixed-size array chunks.
+ *
+ * LinkedListDeque pays for a node (header, prev, next and item fields) on
+ * every item. Here a node holds CHUNK_SIZE items, so the per-item cost is
+ * close to one array slot, and the items of a chunk sit next to each
+ * other in memory. Both ends are still O(1) and nothing is ever copied:
+ * a full end chunk just gets a new neighbour.
+ *
+ * Items are only added and removed at the ends, so every chunk except the
+ * first and the last is full. get(i) uses that to skip a whole chunk per
+ * step, walking in from whichever end is closer.
+ */
+public class UnrolledLinkedListDeque<T> implements Deque<T>, Iterable<T>, MemoryFootprint {
+
+    /** Items per chunk. A power of two so positions inside a chunk are cheap to compute. */
+    static final int CHUNK_SIZE = 64;
+
+    private final Chunk<T> sentinel;
+    private int size;
+    /** The last chunk to empty out, kept so a deque that hovers around a chunk boundary does not reallocate */
+    private Chunk<T> spare;
+
+    /** CHUNK_SIZE slots, of which [start, end) hold items. Static, so it keeps no reference to the deque. */
+    private static class Chunk<T> {
+        Chunk<T> prev;
+        Chunk<T> next;
+        final T[] items;
+        int start;
+        int end;
+
+        Chunk(int capacity) {
+            items = (T[]) new Object[capacity];
+        }
+
+        int count() {
+            return end - start;
+        }
+    }
+
+    /** Constructor to make an empty deque */
+    public UnrolledLinkedListDeque() {
+        sentinel = new Chunk<>(0);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        size = 0;
+    }
+
+    /** Adds an item of type T to the front of the deque. You can assume that item is never null. */
+    @Override
+    public void addFirst(T item) {
+        Chunk<T> first = sentinel.next;
+        if (first == sentinel || first.start == 0) {
+            first = linkAfter(sentinel, CHUNK_SIZE);
+        }
+        first.start -= 1;
+        first.items[first.start] = item;
+        size++;
+    }
+
+    /** Adds an item of type T to the back of the deque. You can assume that item is never null. */
+    @Override
+    public void addLast(T item) {
+        Chunk<T> last = sentinel.prev;
+        if (last == sentinel || last.end == CHUNK_SIZE) {
+            last = linkAfter(last, 0);
+        }
+        last.items[last.end] = item;
+        last.end += 1;
+        size++;
+    }
+
+    /** Links an empty chunk after node, with its free slots starting at position */
+    private Chunk<T> linkAfter(Chunk<T> node, int position) {
+        Chunk<T> chunk = spare;
+        if (chunk == null) {
+            chunk = new Chunk<>(CHUNK_SIZE);
+        }
+        spare = null;
+        chunk.start = position;
+        chunk.end = position;
+        chunk.prev = node;
+        chunk.next = node.next;
+        node.next.prev = chunk;
+        node.next = chunk;
+        return chunk;
+    }
+
+    /** Unlinks a chunk that has no items left and keeps it as the spare */
+    private void unlink(Chunk<T> chunk) {
+        chunk.prev.next = chunk.next;
+        chunk.next.prev = chunk.prev;
+        chunk.prev = null;
+        chunk.next = null;
+        spare = chunk;
+    }
+
+    /** Returns the number of items in the deque. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Prints the items in the deque from first to last, separated by a space.
+     *  Once all the items have been printed, print out a new line. */
+    @Override
+    public void printDeque() {
+        for (T item : this) {
+            System.out.print(item + " ");
+        }
+        System.out.println();
+    }
+
+    /** Removes and returns the item at the front of the deque.
+     * If no such item exists, returns null. */
+    @Override
+    public T removeFirst() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        Chunk<T> first = sentinel.next;
+        T item = first.items[first.start];
+        first.items[first.start] = null;
+        first.start += 1;
+        size--;
+        if (first.count() == 0) {
+            unlink(first);
+        }
+        return item;
+    }
+
+    /** Removes and returns the item at the back of the deque.
+     * If no such item exists, returns null. */
+    @Override
+    public T removeLast() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        Chunk<T> last = sentinel.prev;
+        last.end -= 1;
+        T item = last.items[last.end];
+        last.items[last.end] = null;
+        size--;
+        if (last.count() == 0) {
+            unlink(last);
+        }
+        return item;
+    }
+
+    /** Gets the item at the given index, where 0 is the front, 1 is the next item, and so forth.
+     * If no such item exists, returns null. Must not alter the deque! */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+
+        if (index < size / 2) {
+            Chunk<T> chunk = sentinel.next;
+            while (index >= chunk.count()) {
+                index -= chunk.count();
+                chunk = chunk.next;
+            }
+            return chunk.items[chunk.start + index];
+        }
+
+        int fromBack = size - 1 - index;
+        Chunk<T> chunk = sentinel.prev;
+        while (fromBack >= chunk.count()) {
+            fromBack -= chunk.count();
+            chunk = chunk.prev;
+        }
+        return chunk.items[chunk.end - 1 - fromBack];
+    }
+
+    /** Returns the number of chunks currently linked into the deque */
+    int chunkCount() {
+        int count = 0;
+        for (Chunk<T> chunk = sentinel.next; chunk != sentinel; chunk = chunk.next) {
+            count++;
+        }
+        return count;
+    }
+
+    /** Returns the number of slots in the linked chunks */
+    @Override
+    public int capacity() {
+        return chunkCount() * CHUNK_SIZE;
+    }
+
+    /** Returns the estimated bytes used by this object, the sentinel, the chunks and the spare */
+    @Override
+    public long footprint() {
+        // header, sentinel and spare references, size
+        long self = MemoryFootprint.align(OBJECT_HEADER + 2 * REFERENCE + Integer.BYTES);
+        // prev, next, items, start and end
+        long chunkObject = MemoryFootprint.align(OBJECT_HEADER + 3 * REFERENCE + 2 * Integer.BYTES);
+        long chunk = chunkObject + MemoryFootprint.referenceArray(CHUNK_SIZE);
+        long sentinelChunk = chunkObject + MemoryFootprint.referenceArray(0);
+        int chunks = chunkCount() + (spare == null ? 0 : 1);
+        return self + sentinelChunk + chunk * chunks;
+    }
+
+    /** The Deque objects we’ll make are iterable (i.e. Iterable<T>)
+     * so we must provide this method to return an iterator. */
+    @Override
+    public Iterator<T> iterator() {
+        return new UDequeIterator();
+    }
+
+    /** Walks the chunks in order, reading each one's slots directly */
+    private class UDequeIterator implements Iterator<T> {
+        private Chunk<T> chunk;
+        private int pos;
+
+        UDequeIterator() {
+            chunk = sentinel.next;
+            pos = chunk.start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return chunk != sentinel && pos < chunk.end;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = chunk.items[pos];
+            pos += 1;
+            if (pos == chunk.end) {
+                chunk = chunk.next;
+                pos = chunk.start;
+            }
+            return item;
+        }
+    }
+
+    /** Returns whether the parameter o is equal to the Deque.
+     * o is considered equal if it is a Deque and if it contains the same contents
+     * (as governed by the generic T’s equals method) in the same order. */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Deque)) {
+            return false;
+        }
+
+        Deque<T> comp = (Deque<T>) o;
+
+        if (this == comp) {
+            return true;
+        }
+        if (this.size() != comp.size()) {
+            return false;
+        }
+
+        int index = 0;
+        for (T item : this) {
+            if (!item.equals(comp.get(index))) {
+                return false;
+            }
+            index++;
+        }
+
+        return true;
+    }
+}
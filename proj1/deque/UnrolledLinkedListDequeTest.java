@@ -0,0 +1,102 @@
+package deque;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Tests of the chunked deque, mostly around chunk boundaries. */
+public class UnrolledLinkedListDequeTest {
+
+    private static final int CHUNK = UnrolledLinkedListDeque.CHUNK_SIZE;
+
+    @Test
+    public void addRemoveTest() {
+        UnrolledLinkedListDeque<Integer> d = new UnrolledLinkedListDeque<>();
+        assertTrue(d.isEmpty());
+        assertNull(d.removeFirst());
+        assertNull(d.removeLast());
+
+        d.addFirst(1);
+        d.addLast(2);
+        d.addFirst(0);
+        assertEquals(3, d.size());
+        assertEquals(0, d.get(0).intValue());
+        assertEquals(2, d.get(2).intValue());
+        assertNull(d.get(3));
+        assertNull(d.get(-1));
+
+        assertEquals(0, d.removeFirst().intValue());
+        assertEquals(2, d.removeLast().intValue());
+        assertEquals(1, d.removeLast().intValue());
+        assertTrue(d.isEmpty());
+        assertEquals(0, d.chunkCount());
+    }
+
+    @Test
+    /* Fills several chunks from both ends and reads every index back. */
+    public void getAcrossChunksTest() {
+        UnrolledLinkedListDeque<Integer> d = new UnrolledLinkedListDeque<>();
+        int n = CHUNK * 5 + 7;
+        for (int i = 0; i < n; i++) {
+            d.addLast(i);
+            d.addFirst(-i - 1);
+        }
+        assertEquals(2 * n, d.size());
+        // 5 full chunks and one of 7 items on each side
+        assertEquals(12, d.chunkCount());
+
+        for (int i = 0; i < 2 * n; i++) {
+            assertEquals("index " + i, i - n, d.get(i).intValue());
+        }
+        Iterator<Integer> iter = d.iterator();
+        for (int i = 0; i < 2 * n; i++) {
+            assertEquals(i - n, iter.next().intValue());
+        }
+        assertFalse(iter.hasNext());
+    }
+
+    @Test
+    /* Randomly mixes the four operations and compares against java.util.ArrayDeque. */
+    public void randomizedTest() {
+        UnrolledLinkedListDeque<Integer> d = new UnrolledLinkedListDeque<>();
+        java.util.ArrayDeque<Integer> expected = new java.util.ArrayDeque<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(5);
+            if (op == 0) {
+                d.addFirst(i);
+                expected.addFirst(i);
+            } else if (op == 1 || op == 2) {
+                d.addLast(i);
+                expected.addLast(i);
+            } else if (op == 3) {
+                assertEquals(expected.pollFirst(), d.removeFirst());
+            } else {
+                assertEquals(expected.pollLast(), d.removeLast());
+            }
+            assertEquals(expected.size(), d.size());
+        }
+        int index = 0;
+        for (Integer item : expected) {
+            assertEquals(item, d.get(index));
+            index++;
+        }
+    }
+
+    @Test
+    public void equalsTest() {
+        UnrolledLinkedListDeque<Integer> d = new UnrolledLinkedListDeque<>();
+        LinkedListDeque<Integer> l = new LinkedListDeque<>();
+        for (int i = 0; i < 200; i++) {
+            d.addLast(i);
+            l.addLast(i);
+        }
+        assertTrue(d.equals(l));
+        assertTrue(l.equals(d));
+        d.removeLast();
+        assertFalse(d.equals(l));
+    }
+}
@@ -0,0 +1,212 @@
+package deque;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+
+/**
+ * A Chase-Lev work-stealing deque.
+ *
+ * One owner thread pushes and pops at the back (addLast/removeLast) with no
+ * atomic instructions on the common path; any number of thief threads take
+ * from the front (removeFirst) with a single compare-and-set. Owner and
+ * thieves only contend when the deque is down to its last item.
+ *
+ * Like ArrayDeque this is a circular array, but the indices count up
+ * forever and are masked into the power-of-two array: top is the next item
+ * to steal and bottom is the next free slot. The array grows when full and
+ * never shrinks; thieves that still hold the old array read stale but valid
+ * slots, since items are only ever copied, never cleared, by a resize.
+ *
+ * addFirst is not supported, since only thieves touch the front.
+ * size, get, iterator and printDeque are snapshots that may be out of date
+ * by the time they return if other threads are active.
+ */
+public class WorkStealingDeque<T> implements Deque<T>, Iterable<T> {
+
+    private static final VarHandle TOP;
+
+    static {
+        try {
+            TOP = MethodHandles.lookup().findVarHandle(WorkStealingDeque.class, "top", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile T[] array;
+    /** Index of the next item to steal. Only ever increases, by CAS. */
+    private volatile long top;
+    /** Index of the next free slot. Only written by the owner. */
+    private volatile long bottom;
+
+    /** Constructor to make an empty deque */
+    public WorkStealingDeque() {
+        this(32);
+    }
+
+    /** Constructor to make an empty deque with room for capacity items before it grows */
+    public WorkStealingDeque(int capacity) {
+        int length = 2;
+        while (length < capacity) {
+            length <<= 1;
+        }
+        array = (T[]) new Object[length];
+    }
+
+    /** Not supported: only thieves take from the front. */
+    @Override
+    public void addFirst(T item) {
+        throw new UnsupportedOperationException("a work-stealing deque only adds at the back");
+    }
+
+    /** Pushes an item onto the back of the deque. Owner thread only. */
+    @Override
+    public void addLast(T item) {
+        long b = bottom;
+        long t = top;
+        T[] a = array;
+        if (b - t >= a.length) {
+            a = grow(a, t, b);
+        }
+        a[(int) b & (a.length - 1)] = item;
+        // The volatile write publishes the item to thieves that read bottom
+        bottom = b + 1;
+    }
+
+    /** Copies the live items into an array twice the size. Owner thread only. */
+    private T[] grow(T[] a, long t, long b) {
+        T[] bigger = (T[]) new Object[a.length * 2];
+        for (long i = t; i < b; i++) {
+            bigger[(int) i & (bigger.length - 1)] = a[(int) i & (a.length - 1)];
+        }
+        array = bigger;
+        return bigger;
+    }
+
+    /**
+     * Pops the item at the back of the deque, the one most recently added.
+     * Owner thread only. Returns null if the deque is empty, including when
+     * a thief got the last item first.
+     */
+    @Override
+    public T removeLast() {
+        long b = bottom - 1;
+        T[] a = array;
+        // Claim slot b before looking at top; volatile accesses keep this order
+        bottom = b;
+        long t = top;
+        if (t > b) {
+            bottom = b + 1;
+            return null;
+        }
+        int index = (int) b & (a.length - 1);
+        T item = a[index];
+        if (t == b) {
+            // Last item: race the thieves for it
+            if (!TOP.compareAndSet(this, t, t + 1)) {
+                bottom = b + 1;
+                return null;
+            }
+            bottom = b + 1;
+        }
+        // No thief can still succeed on this slot, so let the item be collected
+        a[index] = null;
+        return item;
+    }
+
+    /**
+     * Steals the item at the front of the deque, the oldest one. Any thread.
+     * Retries when it loses a race with another thief, and returns null
+     * only once the deque is seen to be empty.
+     */
+    @Override
+    public T removeFirst() {
+        while (true) {
+            long t = top;
+            long b = bottom;
+            if (t >= b) {
+                return null;
+            }
+            T[] a = array;
+            T item = a[(int) t & (a.length - 1)];
+            if (TOP.compareAndSet(this, t, t + 1)) {
+                return item;
+            }
+        }
+    }
+
+    /**
+     * Makes one attempt to steal the item at the front of the deque.
+     * Returns null if the deque is empty or another thread took the item
+     * first, so a scheduler can move on to another victim instead of spinning.
+     */
+    public T trySteal() {
+        long t = top;
+        long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+        T[] a = array;
+        T item = a[(int) t & (a.length - 1)];
+        return TOP.compareAndSet(this, t, t + 1) ? item : null;
+    }
+
+    /** Returns the number of items in the deque. */
+    @Override
+    public int size() {
+        long t = top;
+        long b = bottom;
+        return (int) Math.max(0, b - t);
+    }
+
+    /** Prints the items in the deque from first to last, separated by a space.
+     *  Once all the items have been printed, print out a new line. */
+    @Override
+    public void printDeque() {
+        for (T item : this) {
+            System.out.print(item + " ");
+        }
+        System.out.println();
+    }
+
+    /** Gets the item at the given index, where 0 is the front (next to be stolen).
+     * If no such item exists, returns null. */
+    @Override
+    public T get(int index) {
+        long t = top;
+        long b = bottom;
+        if (index < 0 || t + index >= b) {
+            return null;
+        }
+        T[] a = array;
+        return a[(int) (t + index) & (a.length - 1)];
+    }
+
+    /** Returns an iterator from front to back over a snapshot of the items. */
+    @Override
+    public Iterator<T> iterator() {
+        long t = top;
+        long b = bottom;
+        Object[] items = new Object[(int) Math.max(0, b - t)];
+        T[] a = array;
+        for (int i = 0; i < items.length; i++) {
+            items[i] = a[(int) (t + i) & (a.length - 1)];
+        }
+        return new Iterator<T>() {
+            private int pos = 0;
+
+            @Override
+            public boolean hasNext() {
+                return pos < items.length;
+            }
+
+            @Override
+            public T next() {
+                T item = (T) items[pos];
+                pos += 1;
+                return item;
+            }
+        };
+    }
+}
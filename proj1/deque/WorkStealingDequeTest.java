@@ -0,0 +1,152 @@
+package deque;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/** Tests of the Chase-Lev deque and the scheduler built on it. */
+public class WorkStealingDequeTest {
+
+    @Test
+    public void ownerIsLifoThievesAreFifoTest() {
+        WorkStealingDeque<Integer> d = new WorkStealingDeque<>(2);
+        for (int i = 0; i < 10; i++) {
+            d.addLast(i);
+        }
+        assertEquals(10, d.size());
+        assertEquals(0, d.get(0).intValue());
+        assertEquals(9, d.removeLast().intValue());
+        assertEquals(0, d.removeFirst().intValue());
+        assertEquals(1, d.trySteal().intValue());
+        assertEquals(7, d.size());
+        for (int i = 8; i >= 2; i--) {
+            assertEquals(i, d.removeLast().intValue());
+        }
+        assertNull(d.removeLast());
+        assertNull(d.removeFirst());
+        assertTrue(d.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void addFirstUnsupportedTest() {
+        new WorkStealingDeque<Integer>().addFirst(1);
+    }
+
+    /** Every item pushed by the owner is taken exactly once, by the owner or a thief. */
+    @Test
+    public void concurrentStealTest() throws InterruptedException {
+        int n = 200000;
+        WorkStealingDeque<Integer> d = new WorkStealingDeque<>();
+        AtomicIntegerArray taken = new AtomicIntegerArray(n);
+        Thread[] thieves = new Thread[3];
+        AtomicBoolean ownerDone = new AtomicBoolean();
+
+        for (int t = 0; t < thieves.length; t++) {
+            thieves[t] = new Thread(() -> {
+                while (true) {
+                    Integer item = d.removeFirst();
+                    if (item != null) {
+                        taken.incrementAndGet(item);
+                    } else if (ownerDone.get()) {
+                        return;
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            });
+            thieves[t].start();
+        }
+
+        for (int i = 0; i < n; i++) {
+            d.addLast(i);
+            if (i % 3 == 0) {
+                Integer item = d.removeLast();
+                if (item != null) {
+                    taken.incrementAndGet(item);
+                }
+            }
+        }
+        Integer item;
+        while ((item = d.removeLast()) != null) {
+            taken.incrementAndGet(item);
+        }
+        ownerDone.set(true);
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals("item " + i, 1, taken.get(i));
+        }
+    }
+
+    private static class Fib extends WorkStealingScheduler.Task<Long> {
+        private final int n;
+
+        Fib(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Long compute() {
+            if (n < 2) {
+                return (long) n;
+            }
+            Fib left = new Fib(n - 1);
+            left.fork();
+            long right = new Fib(n - 2).compute();
+            return left.join() + right;
+        }
+    }
+
+    @Test
+    public void schedulerTest() {
+        try (WorkStealingScheduler scheduler = new WorkStealingScheduler(4)) {
+            assertEquals(6765L, scheduler.invoke(new Fib(20)).longValue());
+            assertEquals(832040L, scheduler.invoke(new Fib(30)).longValue());
+        }
+    }
+
+    @Test
+    public void schedulerPropagatesFailureTest() {
+        AtomicReference<RuntimeException> caught = new AtomicReference<>();
+        try (WorkStealingScheduler scheduler = new WorkStealingScheduler(2)) {
+            scheduler.invoke(new WorkStealingScheduler.Task<Void>() {
+                @Override
+                protected Void compute() {
+                    throw new IllegalStateException("boom");
+                }
+            });
+        } catch (IllegalStateException e) {
+            caught.set(e);
+        }
+        assertEquals("boom", caught.get().getMessage());
+    }
+
+    /** Callers racing with shutdown either get their result or an exception, never hang. */
+    @Test(timeout = 20000)
+    public void invokeRacingShutdownTest() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            WorkStealingScheduler scheduler = new WorkStealingScheduler(2);
+            AtomicInteger finished = new AtomicInteger();
+            Thread caller = new Thread(() -> {
+                try {
+                    while (true) {
+                        scheduler.invoke(new Fib(5));
+                    }
+                } catch (IllegalStateException e) {
+                    finished.incrementAndGet();
+                }
+            });
+            caller.start();
+            Thread.yield();
+            scheduler.shutdown();
+            caller.join();
+            assertEquals(1, finished.get());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package deque;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A small fork/join task scheduler built on WorkStealingDeque.
+ *
+ * Every worker thread owns one deque. Tasks forked by a worker go onto the
+ * back of its own deque and are popped back off in LIFO order, which keeps
+ * the working set hot; an idle worker steals the oldest task from the front
+ * of a random victim's deque, which tends to be the largest piece of work.
+ * Tasks submitted from outside the pool go through a shared queue.
+ *
+ * This is meant for fine-grained recursive jobs where per-task overhead
+ * matters, and as something to measure against java.util.concurrent.ForkJoinPool.
+ */
+public class WorkStealingScheduler implements AutoCloseable {
+
+    /** How long an idle worker parks before looking for work again */
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final Worker[] workers;
+    private final ConcurrentLinkedQueue<Task<?>> submissions = new ConcurrentLinkedQueue<>();
+    /** Number of workers parked for lack of work, so forks only pay for a wakeup when one would help */
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    /** Creates a scheduler with one worker per available processor */
+    public WorkStealingScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Creates a scheduler with the given number of worker threads */
+    public WorkStealingScheduler(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        workers = new Worker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    /** Returns the number of worker threads */
+    public int parallelism() {
+        return workers.length;
+    }
+
+    /**
+     * Runs task on the pool and waits for its result. May be called from
+     * any thread; from a worker it is the same as task.fork().join().
+     * Throws IllegalStateException if the scheduler is shut down before a
+     * worker picks the task up.
+     */
+    public <T> T invoke(Task<T> task) {
+        if (Thread.currentThread() instanceof Worker) {
+            return task.fork().join();
+        }
+        if (shutdown) {
+            throw new IllegalStateException("scheduler is shut down");
+        }
+        task.waiter = Thread.currentThread();
+        submissions.add(task);
+        // A shutdown that raced with the add may have missed the task
+        if (shutdown && submissions.remove(task)) {
+            throw new IllegalStateException("scheduler is shut down");
+        }
+        wakeOne();
+        while (!task.done) {
+            LockSupport.park(task);
+        }
+        return task.result();
+    }
+
+    /**
+     * Stops the worker threads once they finish the task they are running.
+     * Submitted tasks that no worker has picked up fail with
+     * IllegalStateException, so their callers do not wait forever.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        Task<?> task;
+        while ((task = submissions.poll()) != null) {
+            task.fail(new IllegalStateException("scheduler is shut down"));
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    private void wakeOne() {
+        LockSupport.unpark(workers[ThreadLocalRandom.current().nextInt(workers.length)]);
+    }
+
+    /** Wakes a worker if any is parked idle. A missed wakeup only costs up to IDLE_PARK_NANOS. */
+    private void signalWork() {
+        if (idleWorkers.get() > 0) {
+            wakeOne();
+        }
+    }
+
+    /** Returns a task stolen from another worker or taken from the submissions, or null */
+    private Task<?> findWork(Worker self) {
+        Task<?> task = submissions.poll();
+        if (task != null) {
+            return task;
+        }
+        int start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker victim = workers[(start + i) % workers.length];
+            if (victim != self) {
+                task = victim.deque.trySteal();
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** A worker thread and the deque it owns */
+    private final class Worker extends Thread {
+        private final WorkStealingDeque<Task<?>> deque = new WorkStealingDeque<>();
+
+        Worker(int index) {
+            super("work-stealing-worker-" + index);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!shutdown) {
+                Task<?> task = deque.removeLast();
+                if (task == null) {
+                    task = findWork(this);
+                }
+                if (task != null) {
+                    task.run();
+                } else {
+                    idleWorkers.incrementAndGet();
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    idleWorkers.decrementAndGet();
+                }
+            }
+        }
+
+        /** Adds a forked task to this worker's deque, waking an idle thief if there is spare work */
+        void push(Task<?> task) {
+            deque.addLast(task);
+            if (deque.size() > 1) {
+                signalWork();
+            }
+        }
+
+        /** Runs other tasks until task is done, so a joining worker never sits idle */
+        void helpUntilDone(Task<?> task) {
+            while (!task.done) {
+                Task<?> other = deque.removeLast();
+                if (other == null) {
+                    other = findWork(this);
+                }
+                if (other != null) {
+                    other.run();
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    /**
+     * A unit of work that can fork subtasks and join them, in the style of
+     * java.util.concurrent.RecursiveTask.
+     */
+    public abstract static class Task<T> {
+        private volatile boolean done;
+        private volatile Thread waiter;
+        private T result;
+        private Throwable failure;
+
+        /** Does the work of this task, forking and joining subtasks as needed */
+        protected abstract T compute();
+
+        /**
+         * Schedules this task on the current worker's deque and returns it.
+         * Must be called from inside a task running on a WorkStealingScheduler.
+         */
+        public final Task<T> fork() {
+            Thread current = Thread.currentThread();
+            if (!(current instanceof Worker)) {
+                throw new IllegalStateException("fork() must be called from a worker thread");
+            }
+            ((Worker) current).push(this);
+            return this;
+        }
+
+        /**
+         * Waits for this task to finish and returns its result. A worker
+         * runs other tasks while it waits, most often this one itself.
+         */
+        public final T join() {
+            if (!done) {
+                Thread current = Thread.currentThread();
+                if (!(current instanceof Worker)) {
+                    throw new IllegalStateException("join() must be called from a worker thread");
+                }
+                ((Worker) current).helpUntilDone(this);
+            }
+            return result();
+        }
+
+        /** Runs compute() and records the outcome. Each task is only ever run once. */
+        final void run() {
+            try {
+                result = compute();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            finish();
+        }
+
+        /** Completes this task with failure without running it */
+        final void fail(Throwable e) {
+            failure = e;
+            finish();
+        }
+
+        private void finish() {
+            done = true;
+            Thread w = waiter;
+            if (w != null) {
+                LockSupport.unpark(w);
+            }
+        }
+
+        private T result() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+            return result;
+        }
+    }
+}
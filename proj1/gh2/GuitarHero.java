@@ -16,7 +16,7 @@ public class GuitarHero {
         for (int i = 0; i < strings.length; i++) {
             //440⋅2^[(i−24)/12]
             double frequency = 440 * Math.pow(2, (i - 24) / 12);
-            strings[i] = new GuitarString(frequency);
+            strings[i] = new GuitarString(frequency, true);
         }
 
         while (true) {
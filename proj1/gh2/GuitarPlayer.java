@@ -37,7 +37,7 @@ public class GuitarPlayer {
         strings = new GuitarString[128];
         vol = new double[128];
         for (int i = 0; i < strings.length; i++) {
-            strings[i] = new GuitarString(440.0 * Math.pow(2.0, (i - 69.0) / 12.0));
+            strings[i] = new GuitarString(440.0 * Math.pow(2.0, (i - 69.0) / 12.0), true);
             vol[i] = 0.0;
         }
     }
@@ -1,6 +1,7 @@
 package gh2;
 
 import deque.Deque;
+import deque.DoubleArrayDeque;
 import deque.LinkedListDeque;
 
 //Note: This file will not compile until you complete the Deque implementations
@@ -14,15 +15,34 @@ public class GuitarString {
     /* Buffer for storing sound data. */
     private Deque<Double> buffer;
 
+    /* Unboxed buffer used instead of buffer when the string is created with
+     * primitive = true. tic() then allocates nothing, which keeps the garbage
+     * collector from causing dropouts during real-time playback. */
+    private DoubleArrayDeque samples;
+
     /* Create a guitar string of the given frequency.  */
     public GuitarString(double frequency) {
+        this(frequency, false);
+    }
+
+    /* Create a guitar string of the given frequency, backed by a
+     * DoubleArrayDeque if primitive is true and a LinkedListDeque otherwise. */
+    public GuitarString(double frequency, boolean primitive) {
         // Create a buffer with capacity = SR / frequency. You'll need to
         // cast the result of this division operation into an int. For
         // better accuracy, use the Math.round() function before casting.
         // Your should initially fill your buffer array with zeros.
-        buffer = new LinkedListDeque<>();
         int capacity = (int) Math.round(SR / frequency);
 
+        if (primitive) {
+            samples = new DoubleArrayDeque(capacity);
+            for (int i = 0; i < capacity; i++) {
+                samples.addLast(0.0);
+            }
+            return;
+        }
+
+        buffer = new LinkedListDeque<>();
         for (int i = 0; i < capacity; i++) {
             buffer.addLast(0.0);
         }
@@ -39,6 +59,14 @@ public class GuitarString {
         // other. This does not mean that you need to check that the numbers
         // are different from each other. It means you should repeatedly call
         // Math.random() - 0.5 to generate new random numbers for each array index.
+        if (samples != null) {
+            for (int i = 0; i < samples.size(); i++) {
+                samples.removeFirst();
+                samples.addLast(Math.random() - 0.5);
+            }
+            return;
+        }
+
         for (int i = 0; i < buffer.size(); i++) {
             buffer.removeFirst();
             buffer.addLast(Math.random() - 0.5);
@@ -52,6 +80,12 @@ public class GuitarString {
         // Dequeue the front sample and enqueue a new sample that is
         // the average of the two multiplied by the DECAY factor.
         // **Do not call StdAudio.play().**
+        if (samples != null) {
+            double front = samples.removeFirst();
+            samples.addLast((front + samples.get(0)) / 2 * DECAY);
+            return;
+        }
+
         double front = buffer.removeFirst();
         double next = buffer.get(0);
         double tic = (front + next) / 2 * DECAY;
@@ -60,6 +94,9 @@ public class GuitarString {
 
     /* Return the double at the front of the buffer. */
     public double sample() {
+        if (samples != null) {
+            return samples.get(0);
+        }
         return buffer.get(0);
     }
 }
@@ -79,5 +79,23 @@ public class TestGuitarString  {
         // for assertEquals(double, double)
         assertEquals("Wrong tic value. Try running the testTic method.", expected, s5, 0.001);
     }
-}
 
+    @Test
+    public void testPrimitiveBufferMatches() {
+        // pluck() draws unseeded noise, so the two buffers cannot be fed the same
+        // samples; instead check that both apply the same Karplus-Strong update.
+        for (boolean primitive : new boolean[] {true, false}) {
+            GuitarString s = new GuitarString(11025, primitive);
+            assertEquals(0.0, s.sample(), 0.0);
+            s.pluck();
+
+            double s1 = s.sample();
+            s.tic();
+            double s2 = s.sample();
+            s.tic();
+            s.tic();
+            s.tic();
+            assertEquals("primitive = " + primitive, 0.996 * 0.5 * (s1 + s2), s.sample(), 0.001);
+        }
+    }
+}
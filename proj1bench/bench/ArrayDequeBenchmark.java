@@ -0,0 +1,124 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * deque.ArrayDeque against java.util.ArrayDeque.
+ *
+ * One operation is a full pass over `size` items. The filled deques are
+ * built with items on both sides of the wrap-around point, so indexing,
+ * iteration and resizing all have to deal with it. java.util.ArrayDeque
+ * has no get(int), so the random access benchmark only runs on ours.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ArrayDequeBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] items;
+    private deque.ArrayDeque<Integer> ours;
+    private java.util.ArrayDeque<Integer> theirs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = i;
+        }
+        ours = new deque.ArrayDeque<>();
+        theirs = new java.util.ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            if (i % 2 == 0) {
+                ours.addFirst(items[i]);
+                theirs.addFirst(items[i]);
+            } else {
+                ours.addLast(items[i]);
+                theirs.addLast(items[i]);
+            }
+        }
+    }
+
+    /** Grows from empty, resizing along the way, then drains from the front */
+    @Benchmark
+    public void fillDrainOurs(Blackhole bh) {
+        deque.ArrayDeque<Integer> d = new deque.ArrayDeque<>();
+        for (Integer item : items) {
+            d.addLast(item);
+        }
+        for (int i = 0; i < size; i++) {
+            bh.consume(d.removeFirst());
+        }
+    }
+
+    @Benchmark
+    public void fillDrainJava(Blackhole bh) {
+        java.util.ArrayDeque<Integer> d = new java.util.ArrayDeque<>();
+        for (Integer item : items) {
+            d.addLast(item);
+        }
+        for (int i = 0; i < size; i++) {
+            bh.consume(d.removeFirst());
+        }
+    }
+
+    /** A queue that grows slowly: two adds at the back for every take from the front */
+    @Benchmark
+    public void churnOurs(Blackhole bh) {
+        deque.ArrayDeque<Integer> d = new deque.ArrayDeque<>();
+        for (Integer item : items) {
+            d.addLast(item);
+            d.addLast(item);
+            bh.consume(d.removeFirst());
+        }
+    }
+
+    @Benchmark
+    public void churnJava(Blackhole bh) {
+        java.util.ArrayDeque<Integer> d = new java.util.ArrayDeque<>();
+        for (Integer item : items) {
+            d.addLast(item);
+            d.addLast(item);
+            bh.consume(d.removeFirst());
+        }
+    }
+
+    @Benchmark
+    public void iterateOurs(Blackhole bh) {
+        for (Integer item : ours) {
+            bh.consume(item);
+        }
+    }
+
+    @Benchmark
+    public void iterateJava(Blackhole bh) {
+        for (Integer item : theirs) {
+            bh.consume(item);
+        }
+    }
+
+    @Benchmark
+    public void getOurs(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(ours.get(i));
+        }
+    }
+
+    @Benchmark
+    public long parallelSumOurs() {
+        return ours.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long parallelSumJava() {
+        return theirs.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+}
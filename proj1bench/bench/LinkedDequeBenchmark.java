@@ -0,0 +1,84 @@
+package bench;
+
+import deque.Deque;
+import deque.LinkedListDeque;
+import deque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * LinkedListDeque, one node per item, against UnrolledLinkedListDeque,
+ * one node per chunk of items. Run with the gc profiler (see RunBenchmarks)
+ * to compare the bytes allocated per item as well as the time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LinkedDequeBenchmark {
+
+    /** The deques being compared */
+    public enum Impl {
+        LINKED(LinkedListDeque::new),
+        UNROLLED(UnrolledLinkedListDeque::new);
+
+        private final Supplier<Deque<Integer>> factory;
+
+        Impl(Supplier<Deque<Integer>> factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param({"LINKED", "UNROLLED"})
+    public Impl impl;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] items;
+    private Deque<Integer> filled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = i;
+        }
+        filled = impl.factory.get();
+        for (Integer item : items) {
+            filled.addLast(item);
+        }
+    }
+
+    @Benchmark
+    public void fillDrain(Blackhole bh) {
+        Deque<Integer> d = impl.factory.get();
+        for (Integer item : items) {
+            d.addLast(item);
+        }
+        for (int i = 0; i < size; i++) {
+            bh.consume(d.removeFirst());
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for (Integer item : (Iterable<Integer>) filled) {
+            bh.consume(item);
+        }
+    }
+
+    /** A hundred lookups spread over the deque */
+    @Benchmark
+    public void get(Blackhole bh) {
+        int step = Math.max(1, size / 100);
+        for (int i = 0; i < size; i += step) {
+            bh.consume(filled.get(i));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package bench;
+
+import deque.WorkStealingScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorkStealingScheduler against ForkJoinPool on the same recursive jobs.
+ *
+ * fib is almost pure task overhead: every task does one addition, so it
+ * measures fork, join and steal costs. sum splits an array down to
+ * `threshold` elements per leaf, so lowering the threshold shows how fast
+ * each pool falls behind as the tasks get finer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int parallelism;
+
+    @Param({"64", "1024"})
+    public int threshold;
+
+    private static final int FIB_N = 22;
+    private static final int SUM_SIZE = 1 << 20;
+
+    private WorkStealingScheduler scheduler;
+    private ForkJoinPool forkJoinPool;
+    private long[] numbers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new WorkStealingScheduler(parallelism);
+        forkJoinPool = new ForkJoinPool(parallelism);
+        numbers = new long[SUM_SIZE];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+        forkJoinPool.shutdown();
+    }
+
+    @Benchmark
+    public long fibWorkStealing() {
+        return scheduler.invoke(new Fib(FIB_N));
+    }
+
+    @Benchmark
+    public long fibForkJoin() {
+        return forkJoinPool.invoke(new ForkJoinFib(FIB_N));
+    }
+
+    @Benchmark
+    public long sumWorkStealing() {
+        return scheduler.invoke(new Sum(numbers, 0, numbers.length, threshold));
+    }
+
+    @Benchmark
+    public long sumForkJoin() {
+        return forkJoinPool.invoke(new ForkJoinSum(numbers, 0, numbers.length, threshold));
+    }
+
+    private static long sequentialSum(long[] numbers, int lo, int hi) {
+        long total = 0;
+        for (int i = lo; i < hi; i++) {
+            total += numbers[i];
+        }
+        return total;
+    }
+
+    static class Fib extends WorkStealingScheduler.Task<Long> {
+        private final int n;
+
+        Fib(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Long compute() {
+            if (n < 2) {
+                return (long) n;
+            }
+            Fib left = new Fib(n - 1);
+            left.fork();
+            return new Fib(n - 2).compute() + left.join();
+        }
+    }
+
+    static class ForkJoinFib extends RecursiveTask<Long> {
+        private final int n;
+
+        ForkJoinFib(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Long compute() {
+            if (n < 2) {
+                return (long) n;
+            }
+            ForkJoinFib left = new ForkJoinFib(n - 1);
+            left.fork();
+            return new ForkJoinFib(n - 2).compute() + left.join();
+        }
+    }
+
+    static class Sum extends WorkStealingScheduler.Task<Long> {
+        private final long[] numbers;
+        private final int lo;
+        private final int hi;
+        private final int threshold;
+
+        Sum(long[] numbers, int lo, int hi, int threshold) {
+            this.numbers = numbers;
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo <= threshold) {
+                return sequentialSum(numbers, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            Sum left = new Sum(numbers, lo, mid, threshold);
+            left.fork();
+            return new Sum(numbers, mid, hi, threshold).compute() + left.join();
+        }
+    }
+
+    static class ForkJoinSum extends RecursiveTask<Long> {
+        private final long[] numbers;
+        private final int lo;
+        private final int hi;
+        private final int threshold;
+
+        ForkJoinSum(long[] numbers, int lo, int hi, int threshold) {
+            this.numbers = numbers;
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo <= threshold) {
+                return sequentialSum(numbers, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            ForkJoinSum left = new ForkJoinSum(numbers, lo, mid, threshold);
+            left.fork();
+            return new ForkJoinSum(numbers, mid, hi, threshold).compute() + left.join();
+        }
+    }
+}
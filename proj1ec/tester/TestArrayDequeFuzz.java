@@ -0,0 +1,78 @@
+package tester;
+
+import static org.junit.Assert.*;
+
+import deque.DequeFuzzer;
+import org.junit.Test;
+import student.StudentArrayDeque;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Runs the differential fuzzer from proj1 on StudentArrayDeque. Unlike
+ * TestArrayDequeEC, a failure is reported as the shortest sequence of
+ * calls the fuzzer could find that still goes wrong.
+ */
+public class TestArrayDequeFuzz {
+    @Test
+    public void fuzzTest() {
+        DequeFuzzer.Failure failure = new DequeFuzzer(StudentAdapter::new)
+                .maxSize(100)
+                .fuzz(20, 10000, 2);
+        if (failure != null) {
+            fail("\n" + failure);
+        }
+    }
+
+    /** Presents a StudentArrayDeque as a deque.Deque */
+    private static class StudentAdapter implements deque.Deque<Integer> {
+        private final StudentArrayDeque<Integer> student = new StudentArrayDeque<>();
+
+        public void addFirst(Integer x) {
+            student.addFirst(x);
+        }
+
+        public void addLast(Integer x) {
+            student.addLast(x);
+        }
+
+        public int size() {
+            return student.size();
+        }
+
+        public void printDeque() {
+            student.printDeque();
+        }
+
+        public Integer removeFirst() {
+            return student.removeFirst();
+        }
+
+        public Integer removeLast() {
+            return student.removeLast();
+        }
+
+        public Integer get(int i) {
+            return student.get(i);
+        }
+
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int pos = 0;
+
+                public boolean hasNext() {
+                    return pos < student.size();
+                }
+
+                public Integer next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    pos += 1;
+                    return student.get(pos - 1);
+                }
+            };
+        }
+    }
+}
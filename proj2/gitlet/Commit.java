@@ -2,7 +2,6 @@ package gitlet;
 
 import java.io.File;
 import java.io.Serializable;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -87,34 +86,6 @@ public class Commit implements Serializable, Dumpable {
         return commitFiles.containsKey(fileName);
     }
 
-    /** Returns the commit IDs of all commits along the path to the origin commit
-     * starting from this commit and accounting for merge commits */
-    public HashSet<String> getAllParents() {
-        // Base case: Origin commit returns an empty set
-        if (parentID == null) {
-            return new HashSet<>();
-        }
-
-        // Add the current commit and the first parent
-        HashSet<String> allParents = new HashSet<>();
-        allParents.add(getCommitID());
-        allParents.add(parentID);
-
-        // Add the parents of the first parent
-        Commit firstParent = Repository.loadCommitFromFile(parentID);
-        HashSet<String> allFirstsParents = firstParent.getAllParents();
-        allParents.addAll(allFirstsParents);
-
-        // Add the parents of the second parent if there is one
-        if (secondParentID != null) {
-            Commit secondParent = Repository.loadCommitFromFile(secondParentID);
-            HashSet<String> allSecondsParents = secondParent.getAllParents();
-            allParents.addAll(allSecondsParents);
-        }
-
-        return allParents;
-    }
-
     /** Returns a set of all the file names in the commit */
     public Set<String> getFileNames() {
         return commitFiles.keySet();
@@ -0,0 +1,243 @@
+package gitlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.PriorityQueue;
+
+
+/** Represents the gitlet commit graph
+ *  Keeps the shape of the history in memory so that walking it does not
+ *  read and deserialize a commit at each step. Each commit has a position,
+ *  and its parents are stored as positions too, together with its generation:
+ *  1 for the initial commit, otherwise one more than its highest parent. A
+ *  commit's ancestors all have lower generations than it has, which is what
+ *  lets mergeBase stop as soon as it finds a common ancestor.
+ *
+ *  Commits are only ever added after their parents, so the file is append only.
+ *  Each record is RECORD_SIZE bytes: the commit ID as 20 bytes, the positions
+ *  of the two parents (-1 for none) and the generation. A commit missing from
+ *  the file, such as one made before it existed, is added the first time it
+ *  is looked up.
+ *
+ *  @author Julius Apusen
+ */
+public class CommitGraph {
+    /**
+     * GRAPH_FILE -- File that contains the commit graph
+     * RECORD_SIZE -- Number of bytes for each commit in GRAPH_FILE
+     * NONE -- The position standing in for a missing parent
+     * ids -- The commit ID at each position
+     * positions -- The position of each commit : commitID -> position
+     * firstParents, secondParents -- The positions of the parents of each position
+     * generations -- The generation of each position
+     * pending -- Records added since the graph was loaded, not yet in GRAPH_FILE
+     */
+
+    static final File GRAPH_FILE = Utils.join(Repository.GITLET_DIR, "commit-graph");
+    static final int RECORD_SIZE = Utils.UID_LENGTH / 2 + 3 * Integer.BYTES;
+    static final int NONE = -1;
+    private final ArrayList<String> ids;
+    private final HashMap<String, Integer> positions;
+    private int[] firstParents;
+    private int[] secondParents;
+    private int[] generations;
+    private final ByteArrayOutputStream pending;
+
+    private CommitGraph() {
+        ids = new ArrayList<>();
+        positions = new HashMap<>();
+        firstParents = new int[16];
+        secondParents = new int[16];
+        generations = new int[16];
+        pending = new ByteArrayOutputStream();
+    }
+
+    /** Returns the commit graph from the graph file. A torn record at the end,
+     * left by a command that was cut off, is ignored and will be written again. */
+    public static CommitGraph load() {
+        CommitGraph graph = new CommitGraph();
+        if (!GRAPH_FILE.exists()) {
+            return graph;
+        }
+        byte[] contents = Utils.readContents(GRAPH_FILE);
+        int count = contents.length / RECORD_SIZE;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(contents))) {
+            byte[] id = new byte[Utils.UID_LENGTH / 2];
+            for (int i = 0; i < count; i++) {
+                in.readFully(id);
+                graph.put(toHex(id), in.readInt(), in.readInt(), in.readInt());
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        if (count * RECORD_SIZE != contents.length) {
+            Utils.writeContents(GRAPH_FILE, (Object) Arrays.copyOf(contents, count * RECORD_SIZE));
+        }
+        return graph;
+    }
+
+    /** Appends the commits added since loading to the graph file */
+    public void saveToFile() {
+        if (pending.size() == 0) {
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(GRAPH_FILE, true)) {
+            pending.writeTo(out);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        pending.reset();
+    }
+
+    /** Returns the position of the commit commitID, adding it and any of its
+     * ancestors that are not in the graph yet */
+    public int position(String commitID) {
+        Integer known = positions.get(commitID);
+        if (known != null) {
+            return known;
+        }
+
+        // Add the missing ancestors parents first, without recursing
+        LinkedList<String> stack = new LinkedList<>();
+        stack.push(commitID);
+        while (!stack.isEmpty()) {
+            String id = stack.peek();
+            if (positions.containsKey(id)) {
+                stack.pop();
+                continue;
+            }
+            Commit commit = Repository.loadCommitFromFile(id);
+            String firstID = commit.getParentID();
+            String secondID = commit.getSecondParentID();
+            if (firstID != null && !positions.containsKey(firstID)) {
+                stack.push(firstID);
+            } else if (secondID != null && !positions.containsKey(secondID)) {
+                stack.push(secondID);
+            } else {
+                stack.pop();
+                add(id, commit);
+            }
+        }
+        return positions.get(commitID);
+    }
+
+    /** Adds the commit commitID, whose parents must already be in the graph,
+     * and returns its position */
+    public int add(String commitID, Commit commit) {
+        Integer known = positions.get(commitID);
+        if (known != null) {
+            return known;
+        }
+        int first = commit.getParentID() == null ? NONE : positions.get(commit.getParentID());
+        int second = commit.hasSecondParent() ? positions.get(commit.getSecondParentID()) : NONE;
+        int generation = 1 + Math.max(generation(first), generation(second));
+        int position = put(commitID, first, second, generation);
+
+        DataOutputStream out = new DataOutputStream(pending);
+        try {
+            out.write(fromHex(commitID));
+            out.writeInt(first);
+            out.writeInt(second);
+            out.writeInt(generation);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return position;
+    }
+
+    private int put(String commitID, int first, int second, int generation) {
+        int position = ids.size();
+        if (position == generations.length) {
+            firstParents = Arrays.copyOf(firstParents, position * 2);
+            secondParents = Arrays.copyOf(secondParents, position * 2);
+            generations = Arrays.copyOf(generations, position * 2);
+        }
+        ids.add(commitID);
+        positions.put(commitID, position);
+        firstParents[position] = first;
+        secondParents[position] = second;
+        generations[position] = generation;
+        return position;
+    }
+
+    /** Returns the commit ID at position */
+    public String commitID(int position) {
+        return ids.get(position);
+    }
+
+    /** Returns the position of the first parent of position, or NONE */
+    public int firstParent(int position) {
+        return firstParents[position];
+    }
+
+    /** Returns the generation of position, 0 for NONE */
+    public int generation(int position) {
+        return position == NONE ? 0 : generations[position];
+    }
+
+    /**
+     * Returns the ID of a latest common ancestor of the two commits.
+     * Walks back from both at once, always taking the highest generation
+     * commit left, and marks each commit with the sides that reach it.
+     * A commit's flags are final once it is taken, since all of its
+     * children have higher generations, so the first commit reached from
+     * both sides is a common ancestor and none of its descendants is one.
+     */
+    public String mergeBase(String firstID, String secondID) {
+        final byte fromFirst = 1;
+        final byte fromSecond = 2;
+        int first = position(firstID);
+        int second = position(secondID);
+        byte[] flags = new byte[ids.size()];
+
+        PriorityQueue<Integer> fringe = new PriorityQueue<>(
+                (a, b) -> Integer.compare(generations[b], generations[a]));
+        flags[first] |= fromFirst;
+        flags[second] |= fromSecond;
+        fringe.add(first);
+        if (second != first) {
+            fringe.add(second);
+        }
+
+        while (!fringe.isEmpty()) {
+            int current = fringe.poll();
+            if (flags[current] == (fromFirst | fromSecond)) {
+                return ids.get(current);
+            }
+            for (int parent : new int[] {firstParents[current], secondParents[current]}) {
+                if (parent != NONE && (flags[parent] | flags[current]) != flags[parent]) {
+                    if (flags[parent] == 0) {
+                        fringe.add(parent);
+                    }
+                    flags[parent] |= flags[current];
+                }
+            }
+        }
+        return "";
+    }
+
+    private static byte[] fromHex(String id) {
+        byte[] bytes = new byte[id.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(id.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder id = new StringBuilder();
+        for (byte b : bytes) {
+            id.append(String.format("%02x", b));
+        }
+        return id.toString();
+    }
+}
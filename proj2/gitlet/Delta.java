@@ -0,0 +1,122 @@
+package gitlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+
+/** Encodes a version of a file as the changes from another version, and back.
+ *  A delta is the length of the target followed by instructions that either
+ *  copy a run of bytes out of the base or insert bytes that are not in it.
+ *  Runs are found by indexing every BLOCK bytes of the base and looking up
+ *  each position of the target, so the same lines moved around are still found.
+ *
+ *  @author Julius Apusen
+ */
+class Delta {
+    /**
+     * BLOCK -- Length of the base slices that are indexed, and so the shortest copy
+     * COPY -- Instruction to copy length bytes of the base from offset
+     * INSERT -- Instruction to insert the length bytes that follow
+     */
+
+    static final int BLOCK = 16;
+    private static final byte COPY = 0;
+    private static final byte INSERT = 1;
+
+    /** Returns the delta that turns base into target */
+    static byte[] encode(byte[] base, byte[] target) {
+        // Index the start of each block of the base, keeping the first of equal blocks
+        HashMap<Integer, Integer> blocks = new HashMap<>();
+        for (int i = 0; i + BLOCK <= base.length; i += BLOCK) {
+            blocks.putIfAbsent(hash(base, i), i);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(target.length);
+            int insertStart = 0;
+            int i = 0;
+            while (i + BLOCK <= target.length) {
+                Integer match = blocks.get(hash(target, i));
+                if (match == null || !sameBlock(base, match, target, i)) {
+                    i++;
+                    continue;
+                }
+                // Grow the match backwards into the pending insert, then forwards
+                int start = match;
+                while (start > 0 && i > insertStart && base[start - 1] == target[i - 1]) {
+                    start--;
+                    i--;
+                }
+                int length = 0;
+                while (start + length < base.length && i + length < target.length
+                        && base[start + length] == target[i + length]) {
+                    length++;
+                }
+                writeInsert(out, target, insertStart, i);
+                out.writeByte(COPY);
+                out.writeInt(start);
+                out.writeInt(length);
+                i += length;
+                insertStart = i;
+            }
+            writeInsert(out, target, insertStart, target.length);
+            out.close();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Returns the target that delta was encoded from, given the same base */
+    static byte[] apply(byte[] base, byte[] delta) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(delta))) {
+            byte[] target = new byte[in.readInt()];
+            int pos = 0;
+            while (pos < target.length) {
+                byte instruction = in.readByte();
+                int length;
+                if (instruction == COPY) {
+                    int offset = in.readInt();
+                    length = in.readInt();
+                    System.arraycopy(base, offset, target, pos, length);
+                } else {
+                    length = in.readInt();
+                    in.readFully(target, pos, length);
+                }
+                pos += length;
+            }
+            return target;
+        } catch (IOException | IndexOutOfBoundsException excp) {
+            throw new IllegalArgumentException("corrupt delta: " + excp.getMessage());
+        }
+    }
+
+    /** Writes an instruction inserting target[from, to), if that is not empty */
+    private static void writeInsert(DataOutputStream out, byte[] target, int from, int to)
+            throws IOException {
+        if (from < to) {
+            out.writeByte(INSERT);
+            out.writeInt(to - from);
+            out.write(target, from, to - from);
+        }
+    }
+
+    private static int hash(byte[] data, int from) {
+        int h = 0;
+        for (int i = from; i < from + BLOCK; i++) {
+            h = 31 * h + data[i];
+        }
+        return h;
+    }
+
+    private static boolean sameBlock(byte[] base, int baseFrom, byte[] target, int targetFrom) {
+        return Arrays.equals(base, baseFrom, baseFrom + BLOCK, target, targetFrom, targetFrom + BLOCK);
+    }
+}
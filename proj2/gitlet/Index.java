@@ -0,0 +1,155 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+
+/** Represents the gitlet index
+ *  Caches the blob ID of each file in the working directory together with
+ *  the file's stat data (size, modification time and inode), so a file is
+ *  only read and hashed again when its stat data has changed.
+ *
+ *  A file modified within RACY_MILLIS of being hashed could be changed
+ *  again without its modification time moving on, so such entries are not
+ *  trusted and the file is hashed every time until it has been left alone
+ *  for that long.
+ *
+ *  @author Julius Apusen
+ */
+public class Index implements Serializable, Dumpable {
+    /**
+     * INDEX_FILE -- File that contains the serialized objects
+     * RACY_MILLIS -- How long after its last modification a file's stat data can be trusted
+     * entries -- Cached stat data and blob ID of the files in the CWD : File name -> Entry
+     * changed -- Whether entries differs from what is in INDEX_FILE
+     */
+
+    static final File INDEX_FILE = Utils.join(Repository.GITLET_DIR, "index");
+    static final long RACY_MILLIS = 2000;
+    private TreeMap<String, Entry> entries;
+    private transient boolean changed;
+
+    /** The stat data of a file when it was hashed, and its blob ID */
+    private static class Entry implements Serializable {
+        private final long size;
+        private final long modifiedNanos;
+        private final String fileKey;
+        private final long hashedAtMillis;
+        private final String blobID;
+
+        Entry(BasicFileAttributes attributes, String blobID) {
+            this.size = attributes.size();
+            this.modifiedNanos = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            this.fileKey = String.valueOf(attributes.fileKey());
+            this.hashedAtMillis = System.currentTimeMillis();
+            this.blobID = blobID;
+        }
+
+        /** Returns true if the file still has the attributes it was hashed with,
+         * and was already old enough at the time that they can be trusted */
+        boolean matches(BasicFileAttributes attributes) {
+            long modifiedMillis = TimeUnit.NANOSECONDS.toMillis(modifiedNanos);
+            return size == attributes.size()
+                    && modifiedNanos == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                    && fileKey.equals(String.valueOf(attributes.fileKey()))
+                    && modifiedMillis + RACY_MILLIS < hashedAtMillis;
+        }
+    }
+
+    Index() {
+        entries = new TreeMap<>();
+    }
+
+    /** Returns the index from the index file, or an empty index if there is none yet */
+    public static Index load() {
+        if (!INDEX_FILE.exists() || INDEX_FILE.length() == 0) {
+            return new Index();
+        }
+        return Utils.readObject(INDEX_FILE, Index.class);
+    }
+
+    /** Saves the state of the index to the file if it has changed */
+    public void saveToFile() {
+        if (changed) {
+            Utils.writeObject(INDEX_FILE, this);
+            changed = false;
+        }
+    }
+
+    /** Returns the blob ID of file, the file fileName in the CWD, hashing it only if needed */
+    public String blobID(String fileName, File file) {
+        return blobID(fileName, file, Repository::calculateBlobID);
+    }
+
+    /** Returns the blob ID of file, the file fileName in the CWD. If the index
+     * cannot vouch for it, hasher is called to read the file and return its ID. */
+    public String blobID(String fileName, File file, Function<File, String> hasher) {
+        // Stat before reading, so a change made during the read shows up next time
+        BasicFileAttributes attributes = readAttributes(file);
+        Entry entry = entries.get(fileName);
+        if (entry != null && entry.matches(attributes)) {
+            return entry.blobID;
+        }
+        String blobID = hasher.apply(file);
+        entries.put(fileName, new Entry(attributes, blobID));
+        changed = true;
+        return blobID;
+    }
+
+    /** Returns a mapping of the files fileNames in dir to their blob IDs,
+     * and forgets about any file that is not among them. The files the index
+     * cannot vouch for are hashed by Workers, on several threads if enabled. */
+    public TreeMap<String, String> blobIDs(File dir, List<String> fileNames) {
+        TreeMap<String, String> fileMap = new TreeMap<>();
+        List<String> staleNames = new ArrayList<>();
+        List<BasicFileAttributes> staleAttributes = new ArrayList<>();
+        for (String fileName : fileNames) {
+            BasicFileAttributes attributes = readAttributes(Utils.join(dir, fileName));
+            Entry entry = entries.get(fileName);
+            if (entry != null && entry.matches(attributes)) {
+                fileMap.put(fileName, entry.blobID);
+            } else {
+                staleNames.add(fileName);
+                staleAttributes.add(attributes);
+            }
+        }
+
+        List<String> staleIDs = Workers.map(staleNames,
+                fileName -> Repository.calculateBlobID(Utils.join(dir, fileName)));
+        for (int i = 0; i < staleNames.size(); i++) {
+            fileMap.put(staleNames.get(i), staleIDs.get(i));
+            entries.put(staleNames.get(i), new Entry(staleAttributes.get(i), staleIDs.get(i)));
+            changed = true;
+        }
+        if (entries.keySet().retainAll(fileMap.keySet())) {
+            changed = true;
+        }
+        return fileMap;
+    }
+
+    private static BasicFileAttributes readAttributes(File file) {
+        try {
+            return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    @Override
+    public void dump() {
+        System.out.printf("Index%n");
+        for (String fileName : entries.keySet()) {
+            Entry entry = entries.get(fileName);
+            System.out.printf("%s: %s size=%d mtime=%d key=%s%n", fileName, entry.blobID,
+                    entry.size, entry.modifiedNanos, entry.fileKey);
+        }
+    }
+}
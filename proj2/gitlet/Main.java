@@ -99,6 +99,11 @@ public class Main {
                 validateNumArgs(args, 2);
                 Repository.merge(args[1]);
                 break;
+            case "gc":
+                validateCWD();
+                validateNumArgs(args, 1);
+                Repository.gc();
+                break;
             default:
                 System.out.println("No command with that name exists.");
                 System.exit(0);
@@ -0,0 +1,444 @@
+package gitlet;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+/** Represents a gitlet pack
+ *  Holds many commits and blobs in one compressed file, so a repository does not
+ *  need a file for every object it has ever stored. Commands keep writing loose
+ *  objects into commits/ and blobs/; gc moves them, along with any older packs,
+ *  into a single new pack.
+ *
+ *  A pack is two files in PACK_DIR:
+ *    - pack-ID.pack -- the objects, one after the other, each one deflated
+ *    - pack-ID.idx -- the ID, kind and offset in the .pack of each object
+ *  A blob may be stored as a Delta from the previous version of the same file,
+ *  which is always written earlier in the same pack.
+ *
+ *  Packed entries are read back whole into memory, so blobs larger than
+ *  MAX_PACKED_BLOB are never packed: gc leaves them as loose files, which
+ *  checkout streams from disk however large they are.
+ *
+ *  @author Julius Apusen
+ */
+public class Pack {
+    /**
+     * PACK_DIR -- Folder containing the pack files and their indexes
+     * MAX_DEPTH -- Most deltas that reading a blob can have to apply
+     * MAX_PACKED_BLOB -- Size in bytes above which a blob stays loose instead of being packed
+     * COMMIT, BLOB, DELTA -- Kinds of entry in a pack: a commit, a whole blob, or a blob as a delta
+     * packFile -- The .pack file of this pack
+     * commits -- The offsets of the commits in the pack : commitID -> offset
+     * blobs -- The offsets of the blobs in the pack : blobID -> offset
+     * loaded -- Every pack in PACK_DIR, read in on first use
+     */
+
+    static final File PACK_DIR = Utils.join(Repository.GITLET_DIR, "packs");
+    static final int MAX_DEPTH = 16;
+    static final long MAX_PACKED_BLOB = 16 << 20;
+    private static final int MAGIC = 0x67706b31;
+    private static final byte COMMIT = 1;
+    private static final byte BLOB = 2;
+    private static final byte DELTA = 3;
+
+    private final File packFile;
+    private final TreeMap<String, Long> commits;
+    private final TreeMap<String, Long> blobs;
+    private static List<Pack> loaded;
+
+    /** Reads in the index of the pack named name */
+    private Pack(String name) {
+        packFile = Utils.join(PACK_DIR, name + ".pack");
+        commits = new TreeMap<>();
+        blobs = new TreeMap<>();
+
+        File indexFile = Utils.join(PACK_DIR, name + ".idx");
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Utils.readContents(indexFile)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("not a pack index: " + indexFile);
+            }
+            int count = in.readInt();
+            byte[] id = new byte[Utils.UID_LENGTH];
+            for (int i = 0; i < count; i++) {
+                byte kind = in.readByte();
+                in.readFully(id);
+                long offset = in.readLong();
+                (kind == COMMIT ? commits : blobs).put(new String(id, StandardCharsets.US_ASCII), offset);
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Returns every pack in the repository. Checkouts read blobs on several threads. */
+    private static synchronized List<Pack> all() {
+        if (loaded == null) {
+            loaded = new ArrayList<>();
+            List<String> fileNames = Utils.plainFilenamesIn(PACK_DIR);
+            if (fileNames != null) {
+                for (String fileName : fileNames) {
+                    if (fileName.endsWith(".idx")) {
+                        loaded.add(new Pack(fileName.substring(0, fileName.length() - 4)));
+                    }
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /** Returns the contents of the blob blobID, or null if no pack holds it */
+    public static byte[] readBlob(String blobID) {
+        for (Pack pack : all()) {
+            Long offset = pack.blobs.get(blobID);
+            if (offset != null) {
+                return pack.read(offset);
+            }
+        }
+        return null;
+    }
+
+    /** Returns the serialized commit commitID, or null if no pack holds it */
+    public static byte[] readCommit(String commitID) {
+        for (Pack pack : all()) {
+            Long offset = pack.commits.get(commitID);
+            if (offset != null) {
+                return pack.read(offset);
+            }
+        }
+        return null;
+    }
+
+    /** Returns true if a pack holds the blob blobID */
+    public static boolean containsBlob(String blobID) {
+        for (Pack pack : all()) {
+            if (pack.blobs.containsKey(blobID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns true if a pack holds the commit commitID */
+    public static boolean containsCommit(String commitID) {
+        for (Pack pack : all()) {
+            if (pack.commits.containsKey(commitID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the IDs of all the commits in packs */
+    public static TreeSet<String> commitIDs() {
+        TreeSet<String> ids = new TreeSet<>();
+        for (Pack pack : all()) {
+            ids.addAll(pack.commits.keySet());
+        }
+        return ids;
+    }
+
+    /** Returns the IDs of all the blobs in packs */
+    private static TreeSet<String> blobIDs() {
+        TreeSet<String> ids = new TreeSet<>();
+        for (Pack pack : all()) {
+            ids.addAll(pack.blobs.keySet());
+        }
+        return ids;
+    }
+
+    /** Returns an object of class expectedClass from its serialized bytes */
+    public static <T extends Serializable> T deserialize(byte[] bytes, Class<T> expectedClass) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return expectedClass.cast(in.readObject());
+        } catch (IOException | ClassCastException | ClassNotFoundException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /* ---------------------- Reading ---------------------- */
+
+    /** Returns the contents of the entry at offset, applying any deltas */
+    private byte[] read(long offset) {
+        try (RandomAccessFile in = new RandomAccessFile(packFile, "r")) {
+            return read(in, offset, 0);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    private byte[] read(RandomAccessFile in, long offset, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("delta chain too long in " + packFile);
+        }
+        in.seek(offset);
+        byte kind = in.readByte();
+        long baseOffset = kind == DELTA ? in.readLong() : -1;
+        int length = in.readInt();
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        byte[] contents = inflate(compressed, length);
+        if (kind == DELTA) {
+            return Delta.apply(read(in, baseOffset, depth + 1), contents);
+        }
+        return contents;
+    }
+
+    private static byte[] deflate(byte[] contents) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(contents);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(contents.length / 2 + 16);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] compressed, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        byte[] contents = new byte[length];
+        try {
+            int pos = 0;
+            while (pos < length && !inflater.finished()) {
+                int n = inflater.inflate(contents, pos, length - pos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // Truncated or damaged entry: no more output can come
+                    throw new IOException("corrupt pack entry");
+                }
+                pos += n;
+            }
+        } catch (DataFormatException excp) {
+            throw new IOException(excp.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return contents;
+    }
+
+    /* ---------------------- Repacking ---------------------- */
+
+    /**
+     * Writes every commit and blob, loose or already packed, into one new pack,
+     * then deletes the loose files and the old packs. Loose blobs larger than
+     * MAX_PACKED_BLOB are left where they are. Nothing is pruned:
+     * global-log shows every commit ever made, so they are all kept.
+     * The loose objects and old packs are only removed once the new pack and
+     * its index are in place, so an interrupted repack loses nothing.
+     */
+    public static void repack() {
+        List<String> looseCommits = Utils.plainFilenamesIn(Repository.COMMIT_DIR);
+        List<String> looseBlobs = new ArrayList<>();
+        TreeSet<String> commitIDs = commitIDs();
+        TreeSet<String> blobIDs = blobIDs();
+        if (looseCommits != null) {
+            commitIDs.addAll(looseCommits);
+        }
+        List<String> blobFileNames = Utils.plainFilenamesIn(Repository.BLOB_DIR);
+        if (blobFileNames != null) {
+            for (String blobID : blobFileNames) {
+                if (Utils.join(Repository.BLOB_DIR, blobID).length() <= MAX_PACKED_BLOB) {
+                    looseBlobs.add(blobID);
+                }
+            }
+        }
+        blobIDs.addAll(looseBlobs);
+
+        PACK_DIR.mkdir();
+        File tempPack = Utils.join(PACK_DIR, "tmp_pack");
+        File tempIndex = Utils.join(PACK_DIR, "tmp_idx");
+        TreeMap<String, Long> newCommits = new TreeMap<>();
+        TreeMap<String, Long> newBlobs = new TreeMap<>();
+
+        try (PackWriter writer = new PackWriter(tempPack)) {
+            // Commits go in oldest first, each followed by the versions of its
+            // files that are new, so a delta's base is always already written
+            for (String commitID : ancestorsFirst(commitIDs)) {
+                newCommits.put(commitID, writer.writeCommit(commitID));
+                Commit commit = Repository.loadCommitFromFile(commitID);
+                Commit parent = commit.getParentID() == null
+                        ? null : Repository.loadCommitFromFile(commit.getParentID());
+                for (String fileName : commit.getFileNames()) {
+                    String blobID = commit.getFileBlobID(fileName);
+                    if (!newBlobs.containsKey(blobID) && blobIDs.contains(blobID)) {
+                        String baseID = parent == null ? "" : parent.getFileBlobID(fileName);
+                        newBlobs.put(blobID, writer.writeBlob(blobID, baseID, newBlobs));
+                    }
+                }
+            }
+            // Blobs no commit refers to, such as staged ones
+            for (String blobID : blobIDs) {
+                if (!newBlobs.containsKey(blobID)) {
+                    newBlobs.put(blobID, writer.writeBlob(blobID, "", newBlobs));
+                }
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+
+        // Write the index and move both files into place, the index last
+        writeIndex(tempIndex, newCommits, newBlobs);
+        List<Object> ids = new ArrayList<>(newCommits.keySet());
+        ids.addAll(newBlobs.keySet());
+        String name = "pack-" + Utils.sha1(ids);
+        Repository.moveIntoPlace(tempPack, Utils.join(PACK_DIR, name + ".pack"));
+        Repository.moveIntoPlace(tempIndex, Utils.join(PACK_DIR, name + ".idx"));
+
+        // Everything is in the new pack now
+        for (Pack pack : all()) {
+            String oldName = pack.packFile.getName().replace(".pack", "");
+            if (!oldName.equals(name)) {
+                Utils.join(PACK_DIR, oldName + ".idx").delete();
+                pack.packFile.delete();
+            }
+        }
+        deleteAll(Repository.COMMIT_DIR, looseCommits);
+        deleteAll(Repository.BLOB_DIR, looseBlobs);
+        loaded = null;
+    }
+
+    /** Returns the commits ordered so that every commit comes after its parents */
+    private static List<String> ancestorsFirst(TreeSet<String> commitIDs) {
+        List<String> order = new ArrayList<>();
+        HashSet<String> visited = new HashSet<>();
+        for (String start : commitIDs) {
+            // Iterative post-order walk, as histories can be far deeper than the stack
+            LinkedList<String> stack = new LinkedList<>();
+            LinkedList<Boolean> expanded = new LinkedList<>();
+            stack.push(start);
+            expanded.push(false);
+            while (!stack.isEmpty()) {
+                String id = stack.pop();
+                boolean done = expanded.pop();
+                if (done) {
+                    order.add(id);
+                    continue;
+                }
+                if (id == null || !commitIDs.contains(id) || !visited.add(id)) {
+                    continue;
+                }
+                stack.push(id);
+                expanded.push(true);
+                Commit commit = Repository.loadCommitFromFile(id);
+                stack.push(commit.getSecondParentID());
+                expanded.push(false);
+                stack.push(commit.getParentID());
+                expanded.push(false);
+            }
+        }
+        return order;
+    }
+
+    private static void writeIndex(File indexFile, TreeMap<String, Long> newCommits,
+                                   TreeMap<String, Long> newBlobs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(newCommits.size() + newBlobs.size());
+            for (String commitID : newCommits.keySet()) {
+                out.writeByte(COMMIT);
+                out.write(commitID.getBytes(StandardCharsets.US_ASCII));
+                out.writeLong(newCommits.get(commitID));
+            }
+            for (String blobID : newBlobs.keySet()) {
+                out.writeByte(BLOB);
+                out.write(blobID.getBytes(StandardCharsets.US_ASCII));
+                out.writeLong(newBlobs.get(blobID));
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        Utils.writeContents(indexFile, (Object) bytes.toByteArray());
+    }
+
+    private static void deleteAll(File dir, List<String> fileNames) {
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                Utils.join(dir, fileName).delete();
+            }
+        }
+    }
+
+    /** Appends entries to a new .pack file, keeping track of where each one starts */
+    private static class PackWriter implements AutoCloseable {
+        private final DataOutputStream out;
+        private final HashMap<String, Integer> depths;
+        private long offset;
+
+        PackWriter(File file) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            depths = new HashMap<>();
+            offset = 0;
+        }
+
+        /** Writes the commit commitID and returns its offset */
+        long writeCommit(String commitID) throws IOException {
+            File looseFile = Utils.join(Repository.COMMIT_DIR, commitID);
+            byte[] contents = looseFile.exists() ? Utils.readContents(looseFile) : readCommit(commitID);
+            return writeEntry(COMMIT, -1, contents.length, deflate(contents));
+        }
+
+        /** Writes the blob blobID, as a delta from the blob baseID if that is
+         * already written and makes it smaller, and returns its offset */
+        long writeBlob(String blobID, String baseID, TreeMap<String, Long> written) throws IOException {
+            byte[] contents = Repository.readBlob(blobID);
+            byte[] whole = deflate(contents);
+            Long baseOffset = written.get(baseID);
+            int baseDepth = depths.getOrDefault(baseID, 0);
+            if (baseOffset != null && baseDepth < MAX_DEPTH) {
+                byte[] delta = Delta.encode(Repository.readBlob(baseID), contents);
+                byte[] compressedDelta = deflate(delta);
+                if (compressedDelta.length < whole.length) {
+                    depths.put(blobID, baseDepth + 1);
+                    return writeEntry(DELTA, baseOffset, delta.length, compressedDelta);
+                }
+            }
+            return writeEntry(BLOB, -1, contents.length, whole);
+        }
+
+        private long writeEntry(byte kind, long baseOffset, int length, byte[] compressed)
+                throws IOException {
+            long start = offset;
+            out.writeByte(kind);
+            offset += 1;
+            if (kind == DELTA) {
+                out.writeLong(baseOffset);
+                offset += Long.BYTES;
+            }
+            out.writeInt(length);
+            out.writeInt(compressed.length);
+            out.write(compressed);
+            offset += 2 * Integer.BYTES + compressed.length;
+            return start;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package gitlet;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import static gitlet.Branch.BRANCH_FILE;
+import static gitlet.Index.INDEX_FILE;
 import static gitlet.Staging.STAGING_FILE;
 
 
@@ -13,8 +25,12 @@ import static gitlet.Staging.STAGING_FILE;
  * .gitlet/ -- top level folder for all persistent data in working directory
  *    - blobs/ -- folder containing all the persistent data for files
  *    - commits/ -- folder containing all the persistent data for commits
+ *    - tmp/ -- folder for files being written, which are then renamed into place
+ *    - packs/ -- folder containing the commits and blobs compressed together by gc
  *    - branches -- file containing the mapping of all branches and head to the associated commit
  *    - staging -- file to track files to be added or removed in a commit
+ *    - commit-graph -- file holding the parents and generation of every commit
+ *    - index -- file caching the stat data and blob ID of each file in the working directory
  *  @author Julius Apusen
  */
 public class Repository {
@@ -23,6 +39,8 @@ public class Repository {
      * GITLET_DIR -- File path to the hidden .gitlet repository directory
      * COMMIT_DIR -- File path to the hidden commits directory
      * BLOB_DIR -- File path to the hidden blob directory
+     * TMP_DIR -- File path to the hidden directory for files still being written
+     * BUFFER_SIZE -- Number of bytes read or written at a time when streaming a file
      * dateFormat -- Format for printing out dates
      * originCommitID -- the ID of the origin commit
      */
@@ -31,6 +49,8 @@ public class Repository {
     public static final File GITLET_DIR = Utils.join(CWD, ".gitlet");
     static final File COMMIT_DIR = Utils.join(Repository.GITLET_DIR, "commits");
     static final File BLOB_DIR = Utils.join(Repository.GITLET_DIR, "blobs");
+    static final File TMP_DIR = Utils.join(Repository.GITLET_DIR, "tmp");
+    static final int BUFFER_SIZE = 1 << 16;
     static final DateFormat DATE_FORMAT =
             new SimpleDateFormat("EEE MMM d HH:mm:ss yyyy Z");
 
@@ -47,12 +67,16 @@ public class Repository {
             //Create the branch file and staging area file
             BRANCH_FILE.createNewFile();
             STAGING_FILE.createNewFile();
+            INDEX_FILE.createNewFile();
 
             // Create the origin Commit obj and save it to COMMIT_DIR
             Commit originCommit = new Commit("initial commit", null, null,
                     DATE_FORMAT.format(new Date(0)), new TreeMap<>());
             String originCommitID = originCommit.getCommitID();
             originCommit.saveToDir();
+            CommitGraph graph = CommitGraph.load();
+            graph.add(originCommitID, originCommit);
+            graph.saveToFile();
 
             // Create the MASTER branch and HEAD pointer. Point them to the origin commit
             Branch branches = new Branch(originCommitID);
@@ -73,7 +97,12 @@ public class Repository {
         // Make sure the file exists
         File addedFile = Utils.join(Repository.CWD, fileName);
         validateFile(addedFile);
-        String addedFileBlobID = calculateBlobID(addedFile);
+
+        // Get the blob ID from the index, or else read the file once,
+        // hashing it and saving it as a blob at the same time
+        Index index = Index.load();
+        String addedFileBlobID = index.blobID(fileName, addedFile, Repository::saveBlobFromFile);
+        index.saveToFile();
 
         // Get the Staging Area and Branches
         Staging stagingArea = loadStagingAreaFromFile();
@@ -97,13 +126,11 @@ public class Repository {
                 stagingArea.cancelAdd(fileName);
             } else {
                 // Add and save blob to dir
-                stagingArea.addFile(fileName, addedFileBlobID);
-                saveBlobtoDir(addedFileBlobID, Utils.readContents(addedFile));
+                stagingArea.addFile(fileName, ensureBlobSaved(addedFileBlobID, addedFile));
             }
         } else {
             // Add and save blob to dir
-            stagingArea.addFile(fileName, addedFileBlobID);
-            saveBlobtoDir(addedFileBlobID, Utils.readContents(addedFile));
+            stagingArea.addFile(fileName, ensureBlobSaved(addedFileBlobID, addedFile));
         }
 
         // Save changes to staging area
@@ -160,6 +187,13 @@ public class Repository {
 
         // Save changes
         newCommit.saveToDir();
+        CommitGraph graph = CommitGraph.load();
+        graph.position(prevCommitID);
+        if (secondParentID != null) {
+            graph.position(secondParentID);
+        }
+        graph.add(newCommitID, newCommit);
+        graph.saveToFile();
         branches.saveToFile();
         stagingArea.saveToFile();
     }
@@ -200,21 +234,21 @@ public class Repository {
         Branch branches = loadBranchesFromFile();
         String commitID = branches.getHEADCommitID();
 
-        // Iterate through the parents until you reach the origin commit. Print each commit.
-        while (commitID != null) {
-            Commit commit = loadCommitFromFile(commitID);
+        // Follow the first parents in the commit graph until you reach the origin commit.
+        // Print each commit.
+        CommitGraph graph = CommitGraph.load();
+        int position = graph.position(commitID);
+        while (position != CommitGraph.NONE) {
+            Commit commit = loadCommitFromFile(graph.commitID(position));
             System.out.println(commit);
-            commitID = commit.getParentID();
+            position = graph.firstParent(position);
         }
+        graph.saveToFile();
     }
 
     /** Prints all the commits that have been made */
     public static void globalLog() {
-        List<String> commitFileNames = Utils.plainFilenamesIn(COMMIT_DIR);
-        if (commitFileNames == null) {
-            return;
-        }
-        for (String fileName : commitFileNames) {
+        for (String fileName : allCommitIDs()) {
             Commit commit = loadCommitFromFile(fileName);
             System.out.println(commit);
         }
@@ -222,12 +256,8 @@ public class Repository {
 
     /** Prints all the commits that have the message */
     public static void find(String message) {
-        List<String> commitFileNames = Utils.plainFilenamesIn(COMMIT_DIR);
         int count = 0;
-        if (commitFileNames == null) {
-            return;
-        }
-        for (String fileName : commitFileNames) {
+        for (String fileName : allCommitIDs()) {
             Commit commit = loadCommitFromFile(fileName);
             if (commit.getMessage().equals(message)) {
                 System.out.println(commit.getCommitID());
@@ -361,9 +391,8 @@ public class Repository {
             commitID = findFullCommitID(commitID, idLength);
         }
 
-        File commitFile = Utils.join(Repository.COMMIT_DIR, commitID);
         // The commit does not exist
-        if (!commitFile.exists()) {
+        if (!commitExists(commitID)) {
             System.out.println("No commit with that id exists.");
             System.exit(0);
         }
@@ -415,9 +444,8 @@ public class Repository {
             commitID = findFullCommitID(commitID, idLength);
         }
 
-        File commitFile = Utils.join(Repository.COMMIT_DIR, commitID);
         // The commit does not exist
-        if (!commitFile.exists()) {
+        if (!commitExists(commitID)) {
             System.out.println("No commit with that id exists.");
             System.exit(0);
         }
@@ -471,6 +499,11 @@ public class Repository {
 
     }
 
+    /** Compresses all the commits and blobs into one pack */
+    public static void gc() {
+        Pack.repack();
+    }
+
     /** Overwrites the CWD files to match the new commit */
     public static void overwriteCWD(String prevCommitID, String newCommitID) {
         // Load Staging Area and previous Commit
@@ -485,10 +518,9 @@ public class Repository {
         // There is an untracked file in the cwd
         checkForUntrackedFiles(prevCommit, checkoutCommit);
 
-        // Overwrite files of the new branch to the CWD
-        for (String file: checkoutCommitFiles) {
-            writeFileToCWD(checkoutCommit, file);
-        }
+        // Overwrite files of the new branch to the CWD, on several threads if enabled
+        Workers.forEach(new ArrayList<>(checkoutCommitFiles),
+                file -> writeFileToCWD(checkoutCommit, file));
 
         // Delete files in the CWD that were in the previous branch, but not in the checkout branch
         for (String file : prevCommitFiles) {
@@ -502,22 +534,17 @@ public class Repository {
         stagingArea.saveToFile();
     }
 
-    /** Returns a mapping of the current directory files and the hash of their contents */
+    /** Returns a mapping of the current directory files and the hash of their contents.
+     * Only files whose stat data changed since the index last saw them are read. */
     public static TreeMap<String, String> getCwdFiles() {
-        TreeMap<String, String> fileMap = new TreeMap<>();
-
         List<String> fileNames = Utils.plainFilenamesIn(CWD);
         if (fileNames == null) {
-            return fileMap;
-        }
-
-        for (String blobID : fileNames) {
-            File currentBlob = Utils.join(CWD, blobID);
-            byte[] contents = Utils.readContents(currentBlob);
-            String hash = Utils.sha1(contents);
-            fileMap.put(blobID, hash);
+            return new TreeMap<>();
         }
 
+        Index index = Index.load();
+        TreeMap<String, String> fileMap = index.blobIDs(CWD, fileNames);
+        index.saveToFile();
         return fileMap;
     }
 
@@ -530,10 +557,18 @@ public class Repository {
         }
     }
 
-    /** Returns the blob ID of the given file */
+    /** Returns the blob ID of the given file, reading it through a buffer */
     public static String calculateBlobID(File file) {
-        byte[] fileContents = Utils.readContents(file);
-        return Utils.sha1(fileContents);
+        MessageDigest digest = newSha1();
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return toHex(digest.digest());
     }
 
     /** Returns true if the blobs are the same */
@@ -541,10 +576,65 @@ public class Repository {
         return id1.equals(id2);
     }
 
-    /** Creates a new blob file in the BLOB_DIR */
-    public static void saveBlobtoDir(String blobID, byte[] contents) {
+    /** Copies the file into a new blob file in the BLOB_DIR, hashing it on the way,
+     * and returns its blob ID. The copy is made in TMP_DIR and renamed to the blob ID
+     * once complete, or dropped if the blob already exists. */
+    public static String saveBlobFromFile(File file) {
+        MessageDigest digest = newSha1();
+        File temp = newTempFile();
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new DigestOutputStream(new FileOutputStream(temp), digest)) {
+            copyStream(in, out);
+        } catch (IOException excp) {
+            temp.delete();
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+
+        String blobID = toHex(digest.digest());
+        if (blobExists(blobID)) {
+            temp.delete();
+        } else {
+            moveIntoPlace(temp, Utils.join(BLOB_DIR, blobID));
+        }
+        return blobID;
+    }
+
+    /** Returns the ID of the blob holding file, whose ID the index gave as blobID,
+     * copying the file into a new blob if there is none yet */
+    private static String ensureBlobSaved(String blobID, File file) {
+        if (blobExists(blobID)) {
+            return blobID;
+        }
+        return saveBlobFromFile(file);
+    }
+
+    /** Returns true if there is a blob with the given blobID, loose or packed */
+    public static boolean blobExists(String blobID) {
+        return Utils.join(BLOB_DIR, blobID).exists() || Pack.containsBlob(blobID);
+    }
+
+    /** Returns a stream of the contents of the blob with the given blobID. Loose blobs
+     * are read straight from their file; packed blobs are read from the pack first. */
+    public static InputStream openBlob(String blobID) throws IOException {
         File blobFile = Utils.join(BLOB_DIR, blobID);
-        Utils.writeContents(blobFile, contents);
+        if (blobFile.exists()) {
+            return new FileInputStream(blobFile);
+        }
+        byte[] packed = Pack.readBlob(blobID);
+        if (packed == null) {
+            throw new IOException("No blob with id " + blobID);
+        }
+        return new ByteArrayInputStream(packed);
+    }
+
+    /** Returns the contents of the blob with the given blobID from its file in
+     * BLOB_DIR, or from a pack if it has none. Returns null if there is no such blob. */
+    public static byte[] readBlob(String blobID) {
+        File blobFile = Utils.join(BLOB_DIR, blobID);
+        if (blobFile.exists()) {
+            return Utils.readContents(blobFile);
+        }
+        return Pack.readBlob(blobID);
     }
 
     /** Returns the branch object from the branch file */
@@ -559,7 +649,29 @@ public class Repository {
      */
     public static Commit loadCommitFromFile(String commitID) {
         File commitFile = Utils.join(Repository.COMMIT_DIR, commitID);
-        return Utils.readObject(commitFile, Commit.class);
+        if (commitFile.exists()) {
+            return Utils.readObject(commitFile, Commit.class);
+        }
+        byte[] packed = Pack.readCommit(commitID);
+        if (packed == null) {
+            throw new IllegalArgumentException("No commit with id " + commitID);
+        }
+        return Pack.deserialize(packed, Commit.class);
+    }
+
+    /** Returns true if there is a commit with the given commitID, loose or packed */
+    public static boolean commitExists(String commitID) {
+        return Utils.join(COMMIT_DIR, commitID).exists() || Pack.containsCommit(commitID);
+    }
+
+    /** Returns the IDs of every commit, loose or packed, in order */
+    public static TreeSet<String> allCommitIDs() {
+        TreeSet<String> commitIDs = Pack.commitIDs();
+        List<String> looseIDs = Utils.plainFilenamesIn(COMMIT_DIR);
+        if (looseIDs != null) {
+            commitIDs.addAll(looseIDs);
+        }
+        return commitIDs;
     }
 
     /** Returns the staging area from the staging file */
@@ -569,8 +681,7 @@ public class Repository {
 
     /** Find the full commitID of a shortened commitID */
     public static String findFullCommitID(String commitID, int idLength) {
-        List<String> commitIDs = Utils.plainFilenamesIn(COMMIT_DIR);
-        for (String id : commitIDs) {
+        for (String id : allCommitIDs()) {
             if (commitID.equals(id.substring(0, idLength))) {
                 return id;
             }
@@ -595,48 +706,25 @@ public class Repository {
     public static void writeFileToCWD(Commit commit, String fileName) {
         // Get the file contents
         String fileBlobID = commit.getFileBlobID(fileName);
-        File blobFile = Utils.join(Repository.BLOB_DIR, fileBlobID);
-        byte[] contents = Utils.readContents(blobFile);
+        File temp = newTempFile();
+        try (InputStream in = openBlob(fileBlobID);
+             OutputStream out = new FileOutputStream(temp)) {
+            copyStream(in, out);
+        } catch (IOException excp) {
+            temp.delete();
+            throw new IllegalArgumentException(excp.getMessage());
+        }
 
-        // Write the file to the CWD
+        // Write the file to the CWD, replacing any old version in one step
         File copy = Utils.join(CWD, fileName);
-        Utils.writeContents(copy, contents);
+        moveIntoPlace(temp, copy);
     }
 
     /** Returns the commit ID that is the split point between two branches */
     public static String findBranchSplitPoint(Commit current, Commit branch) {
-        HashSet<String> parents = current.getAllParents();
-        String splitID = "";
-
-        LinkedList<String> fringe = new LinkedList<>();
-        fringe.addLast(branch.getCommitID());
-
-        while (!fringe.isEmpty()) {
-            String currentID = fringe.removeFirst();
-
-            // If we reached the origin, terminate
-            if (currentID == null) {
-                break;
-            }
-
-            // Check if the ID is in the parents
-            if (parents.contains(currentID)) {
-                splitID = currentID;
-                break;
-            }
-
-            // Load the commit
-            Commit currentCommit = loadCommitFromFile(currentID);
-
-            // Enqueue the first parent
-            fringe.addLast(currentCommit.getParentID());
-
-             // If there is a second parent, enqueue it as well
-            if (currentCommit.hasSecondParent()) {
-                fringe.addLast(currentCommit.getSecondParentID());
-            }
-        }
-
+        CommitGraph graph = CommitGraph.load();
+        String splitID = graph.mergeBase(current.getCommitID(), branch.getCommitID());
+        graph.saveToFile();
         return splitID;
     }
 
@@ -657,11 +745,59 @@ public class Repository {
     /** Gets the file contents as a string for the provided blobID */
     public static String getBlobFileContents(String blobID) {
         // File does not exist
-        File file = Utils.join(BLOB_DIR, blobID);
-        if (blobID.equals("") || !file.exists()) {
+        byte[] contents = blobID.equals("") ? null : readBlob(blobID);
+        if (contents == null) {
             return "";
         }
-        return Utils.readContentsAsString(file);
+        return new String(contents, StandardCharsets.UTF_8);
+    }
+
+    /** Copies everything from in to out through a buffer */
+    public static void copyStream(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+    }
+
+    /** Returns a new empty file in TMP_DIR, on the same file system as the
+     * repository so it can be renamed into place */
+    public static File newTempFile() {
+        TMP_DIR.mkdir();
+        try {
+            return File.createTempFile("write", null, TMP_DIR);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Renames the file from to the file to in one step, replacing to if it exists */
+    public static void moveIntoPlace(File from, File to) {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException excp) {
+            from.delete();
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Returns a new SHA-1 digest */
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalArgumentException("System does not support SHA-1");
+        }
+    }
+
+    /** Returns the digest as a hexadecimal string, the same way Utils.sha1 does */
+    private static String toHex(byte[] digest) {
+        Formatter result = new Formatter();
+        for (byte b : digest) {
+            result.format("%02x", b);
+        }
+        return result.toString();
     }
 
     /** Verify if a call to merge is valid */
@@ -0,0 +1,93 @@
+package gitlet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+/** Runs the same work on many files, on a bounded pool of threads
+ *  Hashing the working directory and writing out a checkout are mostly SHA-1
+ *  and disk time per file, with no file depending on another, so they can be
+ *  spread over several cores. The number of threads comes from the
+ *  GITLET_THREADS environment variable; when it is unset or 1, as by default,
+ *  everything runs one file at a time on the calling thread as before.
+ *
+ *  Results always come back in the order of the inputs, whatever order the
+ *  threads finish in, so output such as status stays the same from run to run.
+ *
+ *  @author Julius Apusen
+ */
+class Workers {
+    /**
+     * THREADS_VARIABLE -- Environment variable holding the number of threads to use
+     * MAX_THREADS -- Most threads that will be started, whatever the variable says
+     */
+
+    static final String THREADS_VARIABLE = "GITLET_THREADS";
+    static final int MAX_THREADS = 64;
+
+    /** Returns the number of threads to use, at least 1 */
+    static int threads() {
+        String value = System.getenv(THREADS_VARIABLE);
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException excp) {
+            return 1;
+        }
+    }
+
+    /** Returns the result of task on each of items, in the order of items */
+    static <T, R> List<R> map(List<T> items, Function<T, R> task) {
+        int threads = Math.min(threads(), items.size());
+        List<R> results = new ArrayList<>(items.size());
+        if (threads <= 1) {
+            for (T item : items) {
+                results.add(task.apply(item));
+            }
+            return results;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(pool.submit(() -> task.apply(item)));
+            }
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new GitletException("interrupted");
+        } catch (ExecutionException excp) {
+            // Fail the same way the work would have on one thread
+            Throwable cause = excp.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GitletException(cause.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Runs task on each of items */
+    static <T> void forEach(List<T> items, Consumer<T> task) {
+        map(items, item -> {
+            task.accept(item);
+            return null;
+        });
+    }
+}